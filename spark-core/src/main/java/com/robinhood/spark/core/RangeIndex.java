@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark.core;
+
+/**
+ * A segment tree over a series of float values, answering "which index holds the smallest (or
+ * largest) value in this range" in O(log n) after an O(n) build. The tree stores indices rather
+ * than values so callers can look up exact values from their own source of truth.
+ *
+ * Storage is reused across builds and only grows.
+ */
+public final class RangeIndex {
+    private float[] values = new float[0];
+    // bottom-up trees: node i has children 2i and 2i + 1; leaves live at [size, 2 * size)
+    private int[] minTree = new int[0];
+    private int[] maxTree = new int[0];
+    private int size;
+
+    /**
+     * Builds the index over the first {@code count} entries of {@code source}.
+     */
+    public void build(float[] source, int count) {
+        if (values.length < count) {
+            values = new float[count];
+            minTree = new int[2 * count];
+            maxTree = new int[2 * count];
+        }
+        System.arraycopy(source, 0, values, 0, count);
+        size = count;
+
+        for (int i = 0; i < count; i++) {
+            minTree[count + i] = i;
+            maxTree[count + i] = i;
+        }
+        for (int node = count - 1; node > 0; node--) {
+            minTree[node] = min(minTree[2 * node], minTree[2 * node + 1]);
+            maxTree[node] = max(maxTree[2 * node], maxTree[2 * node + 1]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the index of the smallest value within [from, to], both inclusive.
+     */
+    public int indexOfMin(int from, int to) {
+        checkRange(from, to);
+        int result = from;
+        for (int lo = from + size, hi = to + size + 1; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) result = min(result, minTree[lo++]);
+            if ((hi & 1) == 1) result = min(result, minTree[--hi]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the index of the largest value within [from, to], both inclusive.
+     */
+    public int indexOfMax(int from, int to) {
+        checkRange(from, to);
+        int result = from;
+        for (int lo = from + size, hi = to + size + 1; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) result = max(result, maxTree[lo++]);
+            if ((hi & 1) == 1) result = max(result, maxTree[--hi]);
+        }
+        return result;
+    }
+
+    private int min(int a, int b) {
+        return values[b] < values[a] ? b : a;
+    }
+
+    private int max(int a, int b) {
+        return values[b] > values[a] ? b : a;
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to >= size || from > to) {
+            throw new IndexOutOfBoundsException(
+                    "Invalid range [" + from + ", " + to + "] for size " + size);
+        }
+    }
+}
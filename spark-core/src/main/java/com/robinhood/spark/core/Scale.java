@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark.core;
+
+/**
+ * Maps 'raw' data points to a chart's content box, flipping Y values so that larger values are
+ * drawn higher up.
+ */
+public class Scale {
+    // the width and height of the content box, less the line width
+    protected final float width, height;
+    // the scale factors for the X and Y values
+    protected final float xScale, yScale;
+    // translates the X and Y values back into the content box after being scaled
+    protected final float xTranslation, yTranslation;
+    // the precise X value that the 'raw' X values are rebased against
+    protected final double xOrigin;
+
+    /**
+     * @param bounds          the data bounds to fit within the content box. If they have no width
+     *                        or height, they are expanded by 1 in that direction so the data is
+     *                        centered.
+     * @param xOrigin         the precise X value the bounds' X values are rebased against
+     * @param contentLeft     the left edge of the content box
+     * @param contentTop      the top edge of the content box
+     * @param contentWidth    the width of the content box
+     * @param contentHeight   the height of the content box
+     * @param lineWidth       the width of the line, half of which is kept inside the content box
+     *                        on either side unless {@code fill} is true
+     */
+    public Scale(Bounds bounds, double xOrigin, float contentLeft, float contentTop,
+            float contentWidth, float contentHeight, float lineWidth, boolean fill) {
+        // subtract lineWidth to offset for 1/2 of the line bleeding out of the content box on
+        // either side of the view
+        final float lineWidthOffset = fill ? 0 : lineWidth;
+        this.width = contentWidth - lineWidthOffset;
+        this.height = contentHeight - lineWidthOffset;
+
+        this.xOrigin = xOrigin;
+
+        // if data is a line (which technically has no size), expand bounds to center the data
+        final float xInset = bounds.width() == 0 ? 1 : 0;
+        final float yInset = bounds.height() == 0 ? 1 : 0;
+        final float minX = bounds.left - xInset;
+        final float maxX = bounds.right + xInset;
+        final float minY = bounds.top - yInset;
+        final float maxY = bounds.bottom + yInset;
+
+        // xScale will compress or expand the min and max x values to be just inside the view
+        this.xScale = width / (maxX - minX);
+        // xTranslation will move the x points back between 0 - width
+        this.xTranslation = contentLeft - (minX * xScale) + (lineWidthOffset / 2);
+        // yScale will compress or expand the min and max y values to be just inside the view
+        this.yScale = height / (maxY - minY);
+        // yTranslation will move the y points back between 0 - height
+        this.yTranslation = minY * yScale + contentTop + (lineWidthOffset / 2);
+    }
+
+    /**
+     * Given the 'raw' X value, scale it to fit within our view.
+     */
+    public float getX(float rawX) {
+        return rawX * xScale + xTranslation;
+    }
+
+    /**
+     * Given the 'raw' precise X value, rebase it against the adapter's origin and scale it to
+     * fit within our view.
+     */
+    public float getPreciseX(double rawX) {
+        return getX((float) (rawX - xOrigin));
+    }
+
+    /**
+     * Given the 'raw' Y value, scale it to fit within our view. This method also 'flips' the
+     * value to be ready for drawing.
+     */
+    public float getY(float rawY) {
+        return height - (rawY * yScale) + yTranslation;
+    }
+
+    /**
+     * Given a scaled X value, returns the 'raw' X value that scales to it.
+     */
+    public float getRawX(float scaledX) {
+        return (scaledX - xTranslation) / xScale;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark.core;
+
+import java.util.Arrays;
+
+/**
+ * The data math behind a sparkline, on primitive arrays and without any Android dependencies, so
+ * it can be tested and benchmarked on a plain JVM and reused outside of Android.
+ */
+public final class SparkMath {
+    private SparkMath() {
+    }
+
+    /**
+     * Computes the minimum and maximum of the first {@code count} values. With no values, the
+     * minimum is +MAX_VALUE and the maximum is -MAX_VALUE.
+     *
+     * @param range    receives the minimum at index 0, and the maximum at index 1
+     */
+    public static void computeRange(float[] values, int count, float[] range) {
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            final float value = values[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        range[0] = min;
+        range[1] = max;
+    }
+
+    /**
+     * Computes the bounds of the first {@code count} points, such that left and right are the
+     * minimum and maximum X values, and top and bottom are the minimum and maximum Y values. With
+     * no points, the mins are +MAX_VALUE and the maxes are -MAX_VALUE.
+     *
+     * @param hasBaseLine    true if the Y range must also include {@code baseLine}
+     */
+    public static void computeBounds(float[] xs, float[] ys, int count, boolean hasBaseLine,
+            float baseLine, Bounds bounds) {
+        float minY = hasBaseLine ? baseLine : Float.MAX_VALUE;
+        float maxY = hasBaseLine ? minY : -Float.MAX_VALUE;
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            final float x = xs[i];
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+
+            final float y = ys[i];
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        bounds.set(minX, minY, maxX, maxY);
+    }
+
+    /**
+     * @return the index of the value nearest to {@code x}, among the first {@code size} sorted
+     * values of {@code points}.
+     */
+    public static int getNearestIndex(float[] points, int size, float x) {
+        int index = Arrays.binarySearch(points, 0, size, x);
+
+        // if binary search returns positive, we had an exact match, return that index
+        if (index >= 0) return index;
+
+        // otherwise, calculate the binary search's specified insertion index
+        index = - 1 - index;
+
+        // if we're inserting at 0, then our guaranteed nearest index is 0
+        if (index == 0) return index;
+
+        // if we're inserting at the very end, then our guaranteed nearest index is the final one
+        if (index == size) return --index;
+
+        // otherwise we need to check which of our two neighbors we're closer to
+        final float deltaUp = points[index] - x;
+        final float deltaDown = x - points[index - 1];
+        if (deltaUp > deltaDown) {
+            // if the below neighbor is closer, decrement our index
+            index--;
+        }
+
+        return index;
+    }
+
+    /**
+     * Reduces the first {@code count} points to at most 4 per bucket, where buckets split the X
+     * range evenly (e.g. one bucket per pixel column). Each bucket keeps its first, last, lowest
+     * and highest points, in their original order, so a line through the decimated points covers
+     * exactly the same pixels as a line through all of them.
+     *
+     * @param xs         the X values, sorted in ascending order
+     * @param buckets    the number of buckets, must be positive
+     * @param outXs      receives the decimated X values; must hold min(count, 4 * buckets) values
+     * @param outYs      receives the decimated Y values; must hold min(count, 4 * buckets) values
+     * @return the number of decimated points.
+     */
+    public static int decimate(float[] xs, float[] ys, int count, int buckets, float[] outXs,
+            float[] outYs) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive");
+        }
+        if (count <= 4 * buckets) {
+            System.arraycopy(xs, 0, outXs, 0, count);
+            System.arraycopy(ys, 0, outYs, 0, count);
+            return count;
+        }
+
+        final float minX = xs[0];
+        final float bucketWidth = (xs[count - 1] - minX) / buckets;
+        int outCount = 0;
+        int i = 0;
+        while (i < count) {
+            final int bucket = getBucket(xs[i], minX, bucketWidth, buckets);
+            final int first = i;
+            int min = i, max = i;
+            for (i++; i < count && getBucket(xs[i], minX, bucketWidth, buckets) == bucket; i++) {
+                if (ys[i] < ys[min]) min = i;
+                if (ys[i] > ys[max]) max = i;
+            }
+            final int last = i - 1;
+
+            // first <= low <= high <= last, so duplicates are always adjacent
+            final int low = Math.min(min, max);
+            final int high = Math.max(min, max);
+            outCount = copyPoint(xs, ys, first, outXs, outYs, outCount);
+            if (low != first) outCount = copyPoint(xs, ys, low, outXs, outYs, outCount);
+            if (high != low) outCount = copyPoint(xs, ys, high, outXs, outYs, outCount);
+            if (last != high) outCount = copyPoint(xs, ys, last, outXs, outYs, outCount);
+        }
+        return outCount;
+    }
+
+    private static int copyPoint(float[] xs, float[] ys, int index, float[] outXs, float[] outYs,
+            int outCount) {
+        outXs[outCount] = xs[index];
+        outYs[outCount] = ys[index];
+        return outCount + 1;
+    }
+
+    private static int getBucket(float x, float minX, float bucketWidth, int buckets) {
+        if (bucketWidth == 0) return 0;
+        return Math.min(buckets - 1, (int) ((x - minX) / bucketWidth));
+    }
+}
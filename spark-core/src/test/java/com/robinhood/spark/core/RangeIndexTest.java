@@ -0,0 +1,64 @@
+package com.robinhood.spark.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+
+public class RangeIndexTest {
+
+    @Test
+    public void test_singlePoint() {
+        RangeIndex rangeIndex = new RangeIndex();
+        rangeIndex.build(new float[] {5, 1, 9}, 3);
+
+        assertEquals(1, rangeIndex.indexOfMin(1, 1));
+        assertEquals(1, rangeIndex.indexOfMax(1, 1));
+    }
+
+    @Test
+    public void test_fullRange() {
+        RangeIndex rangeIndex = new RangeIndex();
+        rangeIndex.build(new float[] {5, 1, 9, 3, 7}, 5);
+
+        assertEquals(1, rangeIndex.indexOfMin(0, 4));
+        assertEquals(2, rangeIndex.indexOfMax(0, 4));
+        assertEquals(3, rangeIndex.indexOfMin(2, 4));
+        assertEquals(4, rangeIndex.indexOfMax(3, 4));
+    }
+
+    @Test
+    public void test_matchesLinearScan() {
+        Random random = new Random(42);
+        RangeIndex rangeIndex = new RangeIndex();
+
+        // rebuild with varying sizes to exercise buffer reuse
+        for (int size : new int[] {1, 2, 7, 64, 100, 33}) {
+            float[] values = new float[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = random.nextFloat();
+            }
+            rangeIndex.build(values, size);
+
+            for (int from = 0; from < size; from++) {
+                for (int to = from; to < size; to++) {
+                    int min = from, max = from;
+                    for (int i = from; i <= to; i++) {
+                        if (values[i] < values[min]) min = i;
+                        if (values[i] > values[max]) max = i;
+                    }
+                    assertEquals(values[min], values[rangeIndex.indexOfMin(from, to)]);
+                    assertEquals(values[max], values[rangeIndex.indexOfMax(from, to)]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void test_invalidRange() {
+        RangeIndex rangeIndex = new RangeIndex();
+        rangeIndex.build(new float[] {1, 2, 3}, 3);
+        rangeIndex.indexOfMin(2, 3);
+    }
+}
@@ -0,0 +1,49 @@
+package com.robinhood.spark.core;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+public class ScaleTest {
+
+    @Test
+    public void test_scale_fitsContentBox() {
+        Scale scale = new Scale(new Bounds(0, 0, 2, 1), 0, 0, 0, 100, 100, 0, false);
+
+        // the minimum is bottom left, the maximum top right
+        assertEquals(0f, scale.getX(0));
+        assertEquals(100f, scale.getY(0));
+        assertEquals(100f, scale.getX(2));
+        assertEquals(0f, scale.getY(1));
+        assertEquals(50f, scale.getX(1));
+    }
+
+    @Test
+    public void test_scale_lineWidthPadding() {
+        Scale scale = new Scale(new Bounds(0, 0, 1, 1), 0, 10, 20, 100, 100, 10, false);
+
+        assertEquals(15f, scale.getX(0));
+        assertEquals(115f, scale.getY(0));
+        assertEquals(105f, scale.getX(1));
+        assertEquals(25f, scale.getY(1));
+    }
+
+    @Test
+    public void test_scale_flatData_centered() {
+        Bounds bounds = new Bounds(0, 5, 1, 5);
+        Scale scale = new Scale(bounds, 0, 0, 0, 100, 100, 0, false);
+
+        assertEquals(50f, scale.getY(5));
+        // the bounds themselves are left as they were
+        assertEquals(5f, bounds.top);
+        assertEquals(5f, bounds.bottom);
+    }
+
+    @Test
+    public void test_getPreciseX_rebased() {
+        double origin = 1500000000000d;
+        Scale scale = new Scale(new Bounds(0, 0, 10, 1), origin, 0, 0, 100, 100, 0, false);
+
+        assertEquals(50f, scale.getPreciseX(origin + 5));
+    }
+}
@@ -0,0 +1,96 @@
+package com.robinhood.spark.core;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+public class SparkMathTest {
+
+    @Test
+    public void test_computeBounds() {
+        Bounds bounds = new Bounds();
+        SparkMath.computeBounds(new float[] {50, 99, 100}, new float[] {0, 500, 100}, 3, false, 0,
+                bounds);
+
+        assertEquals(50f, bounds.left);
+        assertEquals(100f, bounds.right);
+        assertEquals(0f, bounds.top);
+        assertEquals(500f, bounds.bottom);
+    }
+
+    @Test
+    public void test_computeBounds_includesBaseLine() {
+        Bounds bounds = new Bounds();
+        SparkMath.computeBounds(new float[] {0, 1}, new float[] {10, 20}, 2, true, -5, bounds);
+
+        assertEquals(-5f, bounds.top);
+        assertEquals(20f, bounds.bottom);
+    }
+
+    @Test
+    public void test_computeBounds_noData() {
+        Bounds bounds = new Bounds();
+        SparkMath.computeBounds(new float[0], new float[0], 0, false, 0, bounds);
+
+        assertEquals(Float.MAX_VALUE, bounds.left);
+        assertEquals(-Float.MAX_VALUE, bounds.right);
+        assertEquals(Float.MAX_VALUE, bounds.top);
+        assertEquals(-Float.MAX_VALUE, bounds.bottom);
+    }
+
+    @Test
+    public void test_computeRange_onlyFirstCount() {
+        float[] range = new float[2];
+        SparkMath.computeRange(new float[] {3, 1, 2, 100}, 3, range);
+
+        assertEquals(1f, range[0]);
+        assertEquals(3f, range[1]);
+    }
+
+    @Test
+    public void test_getNearestIndex() {
+        float[] values = new float[] {0f, 1f, 2f, 3f, 100f};
+        // only the first 4 values are valid
+        assertEquals(3, SparkMath.getNearestIndex(values, 4, 50f));
+        assertEquals(1, SparkMath.getNearestIndex(values, 4, 1.4f));
+        assertEquals(2, SparkMath.getNearestIndex(values, 4, 1.6f));
+        assertEquals(0, SparkMath.getNearestIndex(values, 4, -1f));
+    }
+
+    @Test
+    public void test_decimate_fewPoints_copiesAll() {
+        float[] xs = new float[] {0, 1, 2};
+        float[] ys = new float[] {5, 6, 7};
+        float[] outXs = new float[3];
+        float[] outYs = new float[3];
+
+        assertEquals(3, SparkMath.decimate(xs, ys, 3, 1, outXs, outYs));
+        assertEquals(7f, outYs[2]);
+    }
+
+    @Test
+    public void test_decimate_keepsExtremesInOrder() {
+        // two buckets: x in [0, 5) and [5, 10]
+        float[] xs = new float[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+        float[] ys = new float[] {5, 9, 5, 1, 5, 5, 5, 5, 5, 5, 5};
+        float[] outXs = new float[8];
+        float[] outYs = new float[8];
+
+        int count = SparkMath.decimate(xs, ys, xs.length, 2, outXs, outYs);
+
+        // first, max, min, last of the first bucket; the flat second bucket keeps its first and
+        // last points only
+        assertEquals(6, count);
+        float[] expectedXs = new float[] {0, 1, 3, 4, 5, 10};
+        float[] expectedYs = new float[] {5, 9, 1, 5, 5, 5};
+        for (int i = 0; i < count; i++) {
+            assertEquals(expectedXs[i], outXs[i]);
+            assertEquals(expectedYs[i], outYs[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_decimate_noBuckets() {
+        SparkMath.decimate(new float[1], new float[1], 1, 0, new float[1], new float[1]);
+    }
+}
@@ -155,5 +155,14 @@ public class MainActivity extends AppCompatActivity {
         public float getY(int index) {
             return yData[index];
         }
+
+        @Override
+        public void getPoints(int startIndex, int count, @NonNull float[] xs,
+                @NonNull float[] ys) {
+            for (int i = 0; i < count; i++) {
+                xs[i] = startIndex + i;
+            }
+            System.arraycopy(yData, startIndex, ys, 0, count);
+        }
     }
 }
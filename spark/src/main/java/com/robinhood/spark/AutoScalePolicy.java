@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+/**
+ * Decides the range of Y values a {@link SparkView} displays, given the range its data covers.
+ * Policies other than {@link #exact()} leave room around the data, so that streaming data doesn't
+ * rescale (and visibly "breathe") the chart every time it reaches a new high or low.
+ *
+ * Policies only apply to the default data bounds; if a {@link SparkAdapter} overrides
+ * {@link SparkAdapter#getDataBounds()}, its bounds are used as-is.
+ */
+public abstract class AutoScalePolicy {
+    private static final AutoScalePolicy EXACT = new AutoScalePolicy() {
+        @Override
+        public void getRange(float dataMin, float dataMax, float currentMin, float currentMax,
+                float[] range) {
+            range[0] = dataMin;
+            range[1] = dataMax;
+        }
+    };
+
+    /**
+     * Computes the Y range to display.
+     *
+     * @param dataMin       the minimum Y value of the data (including the base line, if any)
+     * @param dataMax       the maximum Y value of the data (including the base line, if any)
+     * @param currentMin    the minimum of the range currently displayed, or NaN if nothing is
+     * @param currentMax    the maximum of the range currently displayed, or NaN if nothing is
+     * @param range         receives the minimum of the range to display at index 0, and the
+     *                      maximum at index 1
+     */
+    public abstract void getRange(float dataMin, float dataMax, float currentMin, float currentMax,
+            float[] range);
+
+    /**
+     * @return a policy that fits the data exactly. This is the default.
+     */
+    public static AutoScalePolicy exact() {
+        return EXACT;
+    }
+
+    /**
+     * @return a policy that always displays the given range, no matter the data.
+     */
+    public static AutoScalePolicy fixed(final float min, final float max) {
+        if (!(min < max)) {
+            throw new IllegalArgumentException("min must be less than max");
+        }
+        return new AutoScalePolicy() {
+            @Override
+            public void getRange(float dataMin, float dataMax, float currentMin,
+                    float currentMax, float[] range) {
+                range[0] = min;
+                range[1] = max;
+            }
+        };
+    }
+
+    /**
+     * @param headroom    the fraction of the data's range to leave above and below it, e.g. 0.1
+     * @return a policy that fits the data with some headroom above and below it.
+     */
+    public static AutoScalePolicy padded(final float headroom) {
+        checkHeadroom(headroom);
+        return new AutoScalePolicy() {
+            @Override
+            public void getRange(float dataMin, float dataMax, float currentMin,
+                    float currentMax, float[] range) {
+                pad(dataMin, dataMax, headroom, range);
+            }
+        };
+    }
+
+    /**
+     * @param headroom    the fraction of the data's range to leave above and below it, e.g. 0.1
+     * @return a policy that keeps the range currently displayed for as long as the data stays
+     * within it, and otherwise fits the data with some headroom above and below it, the same way
+     * {@link #padded(float)} does.
+     */
+    public static AutoScalePolicy hysteresis(final float headroom) {
+        checkHeadroom(headroom);
+        return new AutoScalePolicy() {
+            @Override
+            public void getRange(float dataMin, float dataMax, float currentMin,
+                    float currentMax, float[] range) {
+                // comparisons against NaN are false, so an empty chart always rescales
+                if (dataMin >= currentMin && dataMax <= currentMax) {
+                    range[0] = currentMin;
+                    range[1] = currentMax;
+                } else {
+                    pad(dataMin, dataMax, headroom, range);
+                }
+            }
+        };
+    }
+
+    static void pad(float min, float max, float headroom, float[] range) {
+        final float padding = (max - min) * headroom;
+        range[0] = min - padding;
+        range[1] = max + padding;
+    }
+
+    private static void checkHeadroom(float headroom) {
+        if (!(headroom >= 0)) {
+            throw new IllegalArgumentException("headroom must not be negative");
+        }
+    }
+}
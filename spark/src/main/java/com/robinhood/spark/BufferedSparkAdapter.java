@@ -0,0 +1,277 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link SparkAdapter} that is written to from a background thread, for data that arrives off
+ * the main thread such as a network stream.
+ *
+ * A single writer thread {@link #add(float) adds} and {@link #set(int, float) overwrites} points
+ * in a private back buffer, then {@link #publish() publishes} them. Publishing copies the back
+ * buffer into a snapshot and hands it to the main thread with an atomic swap; the adapter's
+ * getters only ever read the latest snapshot that reached the main thread, so they never block
+ * and never see a half-written update. Snapshots published faster than the main thread picks
+ * them up are conflated, so a burst of updates notifies observers once.
+ *
+ * The write methods must all be called from the same thread (or be externally synchronized).
+ * Like any other adapter, the getters must be called from the main thread.
+ */
+public class BufferedSparkAdapter extends SparkAdapter {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Handler handler;
+    private final int maxCount;
+
+    // the back buffer, a ring once it reaches maxCount; only touched by the writer thread
+    private float[] xs = new float[0];
+    private float[] ys = new float[0];
+    private int start;
+    private int count;
+    // null until the first point after a clear decides whether points have X values
+    private Boolean hasX;
+
+    // the latest snapshot the main thread hasn't picked up yet
+    private final AtomicReference<Snapshot> pending = new AtomicReference<>();
+    // a snapshot the main thread is done with, for the writer to reuse
+    private final AtomicReference<Snapshot> recycled = new AtomicReference<>();
+    // the snapshot the getters read; only touched by the main thread
+    private Snapshot current = new Snapshot(0);
+
+    /**
+     * Creates an adapter that keeps every point added to it.
+     */
+    public BufferedSparkAdapter() {
+        this(Integer.MAX_VALUE, new Handler(Looper.getMainLooper()));
+    }
+
+    /**
+     * Creates an adapter that keeps at most the given number of points, dropping the oldest point
+     * each time a point is added beyond that, e.g. for a chart of the last few minutes of a
+     * stream.
+     */
+    public BufferedSparkAdapter(int maxCount) {
+        this(maxCount, new Handler(Looper.getMainLooper()));
+    }
+
+    @VisibleForTesting
+    BufferedSparkAdapter(int maxCount, @NonNull Handler handler) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be positive");
+        }
+        this.maxCount = maxCount;
+        this.handler = handler;
+    }
+
+    /**
+     * Adds a point to the back buffer, evenly spaced after the previous points. Must be called
+     * from the writer thread; the point is not visible until the next {@link #publish()}.
+     *
+     * @throws IllegalStateException if points with X values were added since the last
+     * {@link #clear()}.
+     */
+    public void add(float y) {
+        checkHasX(false);
+        addPoint(0, y);
+    }
+
+    /**
+     * Adds a point with the given X value to the back buffer. Must be called from the writer
+     * thread; the point is not visible until the next {@link #publish()}.
+     *
+     * @throws IllegalStateException if points without X values were added since the last
+     * {@link #clear()}.
+     */
+    public void add(float x, float y) {
+        checkHasX(true);
+        addPoint(x, y);
+    }
+
+    /**
+     * Overwrites the Y value of the point at the given index of the back buffer, where index 0 is
+     * the oldest point kept. Must be called from the writer thread; the change is not visible
+     * until the next {@link #publish()}.
+     */
+    public void set(int index, float y) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index: " + index + ", count: " + count);
+        }
+        ys[(start + index) % ys.length] = y;
+    }
+
+    /**
+     * Removes every point from the back buffer. Must be called from the writer thread; the
+     * change is not visible until the next {@link #publish()}.
+     */
+    public void clear() {
+        start = 0;
+        count = 0;
+        hasX = null;
+    }
+
+    /**
+     * Makes the back buffer's points visible to the main thread, and notifies observers there.
+     * Must be called from the writer thread. Never blocks, and only allocates while the back
+     * buffer is still growing.
+     */
+    public void publish() {
+        Snapshot snapshot = recycled.getAndSet(null);
+        if (snapshot == null || snapshot.ys.length < count) {
+            // sized like the back buffer, so it is reused until the back buffer grows again
+            snapshot = new Snapshot(ys.length);
+        }
+        copyRing(ys, snapshot.ys);
+        if (hasX == Boolean.TRUE) {
+            copyRing(xs, snapshot.xs);
+        }
+        snapshot.count = count;
+        snapshot.hasX = hasX == Boolean.TRUE;
+
+        final Snapshot conflated = pending.getAndSet(snapshot);
+        if (conflated == null) {
+            handler.post(swapRunnable);
+        } else {
+            // the main thread never saw it, and won't now
+            recycled.set(conflated);
+        }
+    }
+
+    private final Runnable swapRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (swapSnapshot()) {
+                notifyDataSetChanged();
+            }
+        }
+    };
+
+    /**
+     * Replaces the snapshot the getters read with the latest published one, on the main thread.
+     *
+     * @return true if there was a new snapshot.
+     */
+    @VisibleForTesting
+    boolean swapSnapshot() {
+        final Snapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) return false;
+
+        recycled.set(current);
+        current = snapshot;
+        return true;
+    }
+
+    @Override
+    public int getCount() {
+        return current.count;
+    }
+
+    @NonNull
+    @Override
+    public Object getItem(int index) {
+        return current.ys[index];
+    }
+
+    @Override
+    public float getX(int index) {
+        return current.hasX ? current.xs[index] : index;
+    }
+
+    @Override
+    public float getY(int index) {
+        return current.ys[index];
+    }
+
+    @Override
+    public void getPoints(int startIndex, int count, @NonNull float[] xs, @NonNull float[] ys) {
+        final Snapshot snapshot = current;
+        if (snapshot.hasX) {
+            System.arraycopy(snapshot.xs, startIndex, xs, 0, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                xs[i] = startIndex + i;
+            }
+        }
+        System.arraycopy(snapshot.ys, startIndex, ys, 0, count);
+    }
+
+    private void checkHasX(boolean hasX) {
+        if (this.hasX == null) {
+            this.hasX = hasX;
+        } else if (this.hasX != hasX) {
+            throw new IllegalStateException(
+                    "Points with and without X values can't be mixed, clear() first");
+        }
+    }
+
+    private void addPoint(float x, float y) {
+        if (count == ys.length) {
+            if (count == maxCount) {
+                // drop the oldest point
+                start = (start + 1) % count;
+                count--;
+            } else {
+                grow();
+            }
+        }
+        final int index = (start + count) % ys.length;
+        xs[index] = x;
+        ys[index] = y;
+        count++;
+    }
+
+    private void grow() {
+        final long capacity = Math.max(INITIAL_CAPACITY, ys.length * 2L);
+        final int newCapacity = (int) Math.min(capacity, maxCount);
+        final float[] newXs = new float[newCapacity];
+        final float[] newYs = new float[newCapacity];
+        copyRing(xs, newXs);
+        copyRing(ys, newYs);
+        xs = newXs;
+        ys = newYs;
+        start = 0;
+    }
+
+    /**
+     * Copies the back buffer's points, oldest first, to the start of dst.
+     */
+    private void copyRing(float[] src, float[] dst) {
+        final int firstPart = Math.min(count, src.length - start);
+        System.arraycopy(src, start, dst, 0, firstPart);
+        System.arraycopy(src, 0, dst, firstPart, count - firstPart);
+    }
+
+    /**
+     * An immutable (once published) copy of the back buffer.
+     */
+    private static final class Snapshot {
+        final float[] xs;
+        final float[] ys;
+        int count;
+        boolean hasX;
+
+        Snapshot(int capacity) {
+            xs = new float[capacity];
+            ys = new float[capacity];
+        }
+    }
+}
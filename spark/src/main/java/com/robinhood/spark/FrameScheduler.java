@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+/**
+ * Runs a callback on the next display frame. Any number of {@link #schedule()} calls made before
+ * that frame are coalesced into a single run of the callback. Uses {@link Choreographer} where
+ * available, and falls back to posting to a {@link Handler} after the default frame delay.
+ *
+ * Must only be used from the thread that owns the {@link Handler}.
+ */
+class FrameScheduler {
+    private final Handler handler;
+    private final Runnable callback;
+    private ChoreographerCallback choreographerCallback;
+
+    private boolean scheduled;
+    private long frameTimeNanos;
+
+    FrameScheduler(@NonNull Handler handler, @NonNull Runnable callback) {
+        this.handler = handler;
+        this.callback = callback;
+    }
+
+    private final Runnable handlerCallback = new Runnable() {
+        @Override
+        public void run() {
+            doFrame(SystemClock.uptimeMillis() * 1000000L);
+        }
+    };
+
+    /**
+     * Schedules the callback for the next frame, if it isn't already scheduled.
+     */
+    void schedule() {
+        if (scheduled) return;
+        scheduled = true;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (choreographerCallback == null) {
+                choreographerCallback = new ChoreographerCallback(this);
+            }
+            choreographerCallback.post();
+        } else {
+            handler.postDelayed(handlerCallback, ValueAnimator.getFrameDelay());
+        }
+    }
+
+    /**
+     * Cancels a scheduled callback, if any.
+     */
+    void cancel() {
+        if (!scheduled) return;
+        scheduled = false;
+
+        if (choreographerCallback != null) {
+            choreographerCallback.remove();
+        }
+        handler.removeCallbacks(handlerCallback);
+    }
+
+    boolean isScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * @return the time, in the {@link SystemClock#uptimeMillis()} time base but in nanoseconds, at
+     * which the most recently dispatched frame started rendering.
+     */
+    long getFrameTimeNanos() {
+        return frameTimeNanos;
+    }
+
+    void doFrame(long frameTimeNanos) {
+        if (!scheduled) return;
+        scheduled = false;
+        this.frameTimeNanos = frameTimeNanos;
+        callback.run();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class ChoreographerCallback implements Choreographer.FrameCallback {
+        private final FrameScheduler scheduler;
+
+        ChoreographerCallback(FrameScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void remove() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            scheduler.doFrame(frameTimeNanos);
+        }
+    }
+}
@@ -27,13 +27,31 @@ import android.view.View;
 class ScrubGestureDetector implements View.OnTouchListener {
     static final long LONG_PRESS_TIMEOUT_MS = 250;
 
+    // resampling constants, modeled after the framework's own touch resampling
+    // how far behind the frame time we sample, so we're usually interpolating between real events
+    static final long RESAMPLE_LATENCY_MS = 5;
+    // samples closer or further apart than this are too noisy or too stale to resample between
+    static final long RESAMPLE_MIN_DELTA_MS = 2;
+    static final long RESAMPLE_MAX_DELTA_MS = 20;
+    // the furthest we'll predict past the latest sample
+    static final long RESAMPLE_MAX_PREDICTION_MS = 8;
+
     private final ScrubListener scrubListener;
     private final float touchSlop;
     private final Handler handler;
+    private final FrameScheduler frameScheduler;
 
     private boolean enabled;
+    private boolean resamplingEnabled;
+    private boolean rangeEnabled;
+    private boolean rangeScrubbing;
     private float downX, downY;
 
+    // the two most recent touch samples, used for resampling
+    private int sampleCount;
+    private float prevX, prevY, lastX, lastY;
+    private long prevTime, lastTime;
+
     ScrubGestureDetector(
             @NonNull ScrubListener scrubListener,
             @NonNull Handler handler,
@@ -41,6 +59,7 @@ class ScrubGestureDetector implements View.OnTouchListener {
         this.scrubListener = scrubListener;
         this.handler = handler;
         this.touchSlop = touchSlop;
+        this.frameScheduler = new FrameScheduler(handler, frameRunnable);
     }
 
     private final Runnable longPressRunnable = new Runnable() {
@@ -50,10 +69,49 @@ class ScrubGestureDetector implements View.OnTouchListener {
         }
     };
 
+    private final Runnable frameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final long sampleTime = frameScheduler.getFrameTimeNanos() / 1000000L
+                    - RESAMPLE_LATENCY_MS;
+            if (sampleCount < 2) {
+                scrubListener.onScrubbed(lastX, lastY);
+            } else {
+                scrubListener.onScrubbed(
+                        resample(prevX, prevTime, lastX, lastTime, sampleTime),
+                        resample(prevY, prevTime, lastY, lastTime, sampleTime));
+            }
+        }
+    };
+
     public void setEnabled(boolean enabled) {
         this.enabled = enabled;
     }
 
+    /**
+     * When enabled, move events (including their batched historical samples) are collected and
+     * resampled to the display frame, and {@link ScrubListener#onScrubbed(float, float)} is called
+     * at most once per frame.
+     */
+    public void setResamplingEnabled(boolean resamplingEnabled) {
+        this.resamplingEnabled = resamplingEnabled;
+        if (!resamplingEnabled) {
+            frameScheduler.cancel();
+        }
+    }
+
+    public boolean isResamplingEnabled() {
+        return resamplingEnabled;
+    }
+
+    /**
+     * When enabled, placing a second finger on the view scrubs the range between both fingers,
+     * reported through {@link ScrubListener#onRangeScrubbed(float, float)}.
+     */
+    public void setRangeEnabled(boolean rangeEnabled) {
+        this.rangeEnabled = rangeEnabled;
+    }
+
     @Override
     public boolean onTouch(View v, MotionEvent event) {
         if (!enabled) return false;
@@ -65,17 +123,52 @@ class ScrubGestureDetector implements View.OnTouchListener {
                 // store the time to compute whether future events are 'long presses'
                 downX = x;
                 downY = y;
+                sampleCount = 0;
+                rangeScrubbing = false;
 
                 handler.postDelayed(longPressRunnable, LONG_PRESS_TIMEOUT_MS);
                 return true;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                if (!rangeEnabled || event.getPointerCount() != 2) return false;
+
+                // a second finger is an intentional gesture, no need to wait for a long-press
+                handler.removeCallbacks(longPressRunnable);
+                frameScheduler.cancel();
+                rangeScrubbing = true;
+                scrubListener.onRangeScrubbed(event.getX(0), event.getX(1));
+                return true;
+            case MotionEvent.ACTION_POINTER_UP:
+                if (!rangeScrubbing) return false;
+
+                // back to scrubbing with the remaining finger on the next move
+                if (event.getPointerCount() <= 2) {
+                    rangeScrubbing = false;
+                }
+                return true;
             case MotionEvent.ACTION_MOVE:
+                if (rangeScrubbing) {
+                    if (event.getPointerCount() >= 2) {
+                        scrubListener.onRangeScrubbed(event.getX(0), event.getX(1));
+                    }
+                    return true;
+                }
+
                 // calculate the elapsed time since the down event
                 float timeDelta = event.getEventTime() - event.getDownTime();
 
                 // if the user has intentionally long-pressed
                 if (timeDelta >= LONG_PRESS_TIMEOUT_MS) {
                     handler.removeCallbacks(longPressRunnable);
-                    scrubListener.onScrubbed(x, y);
+                    if (resamplingEnabled) {
+                        for (int i = 0, size = event.getHistorySize(); i < size; i++) {
+                            addSample(event.getHistoricalX(i), event.getHistoricalY(i),
+                                    event.getHistoricalEventTime(i));
+                        }
+                        addSample(x, y, event.getEventTime());
+                        frameScheduler.schedule();
+                    } else {
+                        scrubListener.onScrubbed(x, y);
+                    }
                 } else {
                     // if we moved before longpress, remove the callback if we exceeded the tap slop
                     float deltaX = x - downX;
@@ -92,6 +185,8 @@ class ScrubGestureDetector implements View.OnTouchListener {
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL:
                 handler.removeCallbacks(longPressRunnable);
+                frameScheduler.cancel();
+                rangeScrubbing = false;
                 scrubListener.onScrubEnded();
                 return true;
             default:
@@ -99,8 +194,39 @@ class ScrubGestureDetector implements View.OnTouchListener {
         }
     }
 
+    private void addSample(float x, float y, long time) {
+        prevX = lastX;
+        prevY = lastY;
+        prevTime = lastTime;
+        lastX = x;
+        lastY = y;
+        lastTime = time;
+        sampleCount++;
+    }
+
+    /**
+     * Linearly resamples a coordinate at {@code sampleTime}, given its two most recent samples.
+     * Interpolates when sampleTime falls between the samples and predicts (by a bounded amount)
+     * when it falls after the latest one. Falls back to the latest sample otherwise.
+     */
+    static float resample(float prev, long prevTime, float last, long lastTime, long sampleTime) {
+        final long delta = lastTime - prevTime;
+        if (delta < RESAMPLE_MIN_DELTA_MS || delta > RESAMPLE_MAX_DELTA_MS) return last;
+        if (sampleTime <= prevTime) return last;
+
+        if (sampleTime > lastTime) {
+            final long maxPredictionTime = lastTime
+                    + Math.min(delta / 2, RESAMPLE_MAX_PREDICTION_MS);
+            sampleTime = Math.min(sampleTime, maxPredictionTime);
+        }
+
+        final float alpha = (float) (sampleTime - prevTime) / delta;
+        return prev + (last - prev) * alpha;
+    }
+
     interface ScrubListener {
         void onScrubbed(float x, float y);
+        void onRangeScrubbed(float x1, float x2);
         void onScrubEnded();
     }
 }
@@ -16,18 +16,37 @@
 
 package com.robinhood.spark;
 
-import android.database.DataSetObservable;
 import android.database.DataSetObserver;
 import android.graphics.RectF;
 import android.support.annotation.NonNull;
 import android.support.annotation.VisibleForTesting;
 
+import com.robinhood.spark.core.Bounds;
+import com.robinhood.spark.core.SparkMath;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 /**
  * A simple adapter class - evenly distributes your points along the x axis, does not draw a base
  * line, and has support for registering/notifying {@link DataSetObserver}s when data is changed.
  */
 public abstract class SparkAdapter {
-    private final DataSetObservable observable = new DataSetObservable();
+    // whether each adapter class overrides getDataBounds(), looked up once per class. Geometry may
+    // be built off the main thread, so this is synchronized
+    private static final Map<Class<?>, Boolean> customDataBounds =
+            Collections.synchronizedMap(new WeakHashMap<Class<?>, Boolean>());
+
+    /**
+     * Returned by {@link #getDataId()} for data without a stable id.
+     */
+    public static final long NO_DATA_ID = -1;
+
+    private final SparkDataSetObservable observable = new SparkDataSetObservable();
+    // bumped by every notification, so a SparkGeometry can tell if it was built from stale data.
+    // Only written on the main thread, but geometry may be built from other threads
+    volatile int dataVersion;
 
     /**
      * @return the number of points to be drawn
@@ -47,11 +66,68 @@ public abstract class SparkAdapter {
         return index;
     }
 
+    /**
+     * @return true if this adapter's X values need more precision than a float can offer, for
+     * instance epoch-millisecond timestamps. When true, X values are read through
+     * {@link #getPreciseX(int)} and rebased against {@link #getXOrigin()} before being converted
+     * to floats, so raw timestamps can be fed in without normalizing them first.
+     */
+    public boolean hasPreciseX() {
+        return false;
+    }
+
+    /**
+     * @return the double representation of the X value of the point at the given index. Only
+     * used when {@link #hasPreciseX()} returns true.
+     */
+    public double getPreciseX(int index) {
+        return getX(index);
+    }
+
+    /**
+     * Gets the X value that all other X values are rebased against when {@link #hasPreciseX()}
+     * returns true. By default this is the X value of the first point, which keeps the rebased
+     * values small enough to be exact as floats.
+     *
+     * @return the precise X value that maps to a rebased X of 0.
+     */
+    public double getXOrigin() {
+        return hasPreciseX() && getCount() > 0 ? getPreciseX(0) : 0;
+    }
+
     /**
      * @return the float representation of the Y value of the point at the given index.
      */
     public abstract float getY(int index);
 
+    /**
+     * Copies the X and Y values of {@code count} points, starting at {@code startIndex}, into the
+     * given arrays. By default this calls {@link #getX(int)} and {@link #getY(int)} for each point;
+     * adapters backed by primitive arrays can override this with a bulk copy (e.g.
+     * {@link System#arraycopy(Object, int, Object, int, int)}) to avoid two virtual calls per
+     * point. If {@link #hasPreciseX()} returns true, the X values must be rebased against
+     * {@link #getXOrigin()}.
+     *
+     * @param startIndex the adapter index of the first point to copy
+     * @param count      the number of points to copy
+     * @param xs         destination for the X values, filled starting at index 0
+     * @param ys         destination for the Y values, filled starting at index 0
+     */
+    public void getPoints(int startIndex, int count, @NonNull float[] xs, @NonNull float[] ys) {
+        if (hasPreciseX()) {
+            final double xOrigin = getXOrigin();
+            for (int i = 0; i < count; i++) {
+                xs[i] = (float) (getPreciseX(startIndex + i) - xOrigin);
+                ys[i] = getY(startIndex + i);
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                xs[i] = getX(startIndex + i);
+                ys[i] = getY(startIndex + i);
+            }
+        }
+    }
+
     /**
      * Gets the float representation of the boundaries of the entire dataset. By default, this will
      * be the min and max of the actual data points in the adapter. This can be overridden for
@@ -64,29 +140,47 @@ public abstract class SparkAdapter {
      *     <li>bottom = the maximum Y value</li>
      * </ul>
      *
+     * If {@link #hasPreciseX()} returns true, left and right must be rebased against
+     * {@link #getXOrigin()}.
+     *
      * @return a RectF of the bounds desired around this adapter's data.
      */
     @NonNull
     public RectF getDataBounds() {
         final int count = getCount();
-        final boolean hasBaseLine = hasBaseLine();
+        final float[] xs = new float[count];
+        final float[] ys = new float[count];
+        getPoints(0, count, xs, ys);
 
-        float minY = hasBaseLine ? getBaseLine() : Float.MAX_VALUE;
-        float maxY = hasBaseLine ? minY : -Float.MAX_VALUE;
-        float minX = Float.MAX_VALUE;
-        float maxX = -Float.MAX_VALUE;
-        for (int i = 0; i < count; i++) {
-            final float x = getX(i);
-            minX = Math.min(minX, x);
-            maxX = Math.max(maxX, x);
-
-            final float y = getY(i);
-            minY = Math.min(minY, y);
-            maxY = Math.max(maxY, y);
-        }
+        final Bounds bounds = new Bounds();
+        final boolean hasBaseLine = hasBaseLine();
+        SparkMath.computeBounds(xs, ys, count, hasBaseLine, hasBaseLine ? getBaseLine() : 0,
+                bounds);
 
         // set values on the return object
-        return createRectF(minX, minY, maxX, maxY);
+        return createRectF(bounds.left, bounds.top, bounds.right, bounds.bottom);
+    }
+
+    /**
+     * @return true if {@link SparkView} should use this adapter's {@link #getDataBounds()}. When
+     * false, {@link SparkView} computes the default bounds itself from the points it has already
+     * read, rather than reading every point a second time, and applies its
+     * {@link AutoScalePolicy} to them. By default, this is true if this adapter's class overrides
+     * {@link #getDataBounds()}; override this if the override only sometimes changes the bounds.
+     */
+    public boolean hasCustomDataBounds() {
+        final Class<?> adapterClass = getClass();
+        Boolean custom = customDataBounds.get(adapterClass);
+        if (custom == null) {
+            try {
+                custom = adapterClass.getMethod("getDataBounds").getDeclaringClass()
+                        != SparkAdapter.class;
+            } catch (NoSuchMethodException e) {
+                custom = true;
+            }
+            customDataBounds.put(adapterClass, custom);
+        }
+        return custom;
     }
 
     /**
@@ -112,20 +206,46 @@ public abstract class SparkAdapter {
         return 0;
     }
 
+    /**
+     * @return an id for this adapter's current data that stays the same across configuration
+     * changes and process death, e.g. a hash of the symbol and time range it charts, or
+     * {@link #NO_DATA_ID} (the default). A {@link SparkView} whose adapter has an id saves the
+     * points it read in its instance state, and restores them instead of reading the adapter again
+     * if the adapter reports the same id. The id must change whenever the data does.
+     */
+    public long getDataId() {
+        return NO_DATA_ID;
+    }
+
     /**
      * Notifies the attached observers that the underlying data has been changed and any View
      * reflecting the data set should refresh itself.
      */
     public final void notifyDataSetChanged() {
+        dataVersion++;
         observable.notifyChanged();
     }
 
+    /**
+     * Notifies the attached observers that the point at the given index has changed, and no other
+     * points have - for instance when the latest point is overwritten with a new value. A
+     * {@link SparkView} redraws such changes without re-reading or rescaling the rest of the data,
+     * as long as the data bounds don't change.
+     *
+     * @param index    the index of the changed point
+     */
+    public final void notifyItemChanged(int index) {
+        dataVersion++;
+        observable.notifyItemChanged(index);
+    }
+
     /**
      * Notifies the attached observers that the underlying data is no longer valid or available.
      * Once invoked this adapter is no longer valid and should not report further data set
      * changes.
      */
     public final void notifyDataSetInvalidated() {
+        dataVersion++;
         observable.notifyInvalidated();
     }
 
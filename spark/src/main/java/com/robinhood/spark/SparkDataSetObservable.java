@@ -0,0 +1,43 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+
+/**
+ * A {@link DataSetObservable} that can also notify its observers of single point changes.
+ */
+class SparkDataSetObservable extends DataSetObservable {
+    /**
+     * Invokes {@link SparkDataSetObserver#onItemChanged(int)} on each observer that is a
+     * {@link SparkDataSetObserver}, and {@link DataSetObserver#onChanged()} on the rest.
+     */
+    public void notifyItemChanged(int index) {
+        synchronized (mObservers) {
+            // same reverse order as DataSetObservable, so observers can unregister themselves
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                final DataSetObserver observer = mObservers.get(i);
+                if (observer instanceof SparkDataSetObserver) {
+                    ((SparkDataSetObserver) observer).onItemChanged(index);
+                } else {
+                    observer.onChanged();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.database.DataSetObserver;
+
+/**
+ * A {@link DataSetObserver} that can also be told when a single point of a {@link SparkAdapter}
+ * changed, via {@link SparkAdapter#notifyItemChanged(int)}. Plain {@link DataSetObserver}s are
+ * notified of such changes through {@link #onChanged()}.
+ */
+public abstract class SparkDataSetObserver extends DataSetObserver {
+    /**
+     * This method is called when the point at the given index has changed, and no other points
+     * have. By default this calls {@link #onChanged()}.
+     */
+    public void onItemChanged(int index) {
+        onChanged();
+    }
+}
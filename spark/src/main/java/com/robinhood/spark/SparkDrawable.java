@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.content.Context;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.AttrRes;
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+
+/**
+ * A non-interactive sparkline {@link Drawable}, for places where a full {@link SparkView} is more
+ * than needed: small charts in every row of a long list, compound drawables, or spans in text.
+ * It scales and draws its {@link SparkAdapter}'s data exactly as a {@link SparkView} with the same
+ * style and size would, but has no scrubbing, animation or deferred rebuilds.
+ *
+ * The drawable registers itself with its adapter, so set a null adapter when it is no longer
+ * needed if the adapter outlives it.
+ */
+public class SparkDrawable extends Drawable {
+    private final SparkStyle style;
+    private final Paint sparkLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint sparkFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint baseLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final SparkGeometry geometry = new SparkGeometry();
+    private final RectF contentRect = new RectF();
+    private @Nullable SparkAdapter adapter;
+    private int alpha = 255;
+    private int intrinsicWidth = -1, intrinsicHeight = -1;
+
+    /**
+     * Creates a drawable with the default {@link SparkView} style of the context's theme.
+     */
+    public SparkDrawable(@NonNull Context context) {
+        this(context, R.attr.spark_SparkViewStyle, R.style.spark_SparkView);
+    }
+
+    /**
+     * Creates a drawable with the given style, which is used in place of the theme's
+     * {@code spark_SparkViewStyle} rather than underneath it.
+     *
+     * @param styleRes    a style that sets the {@code spark_} attributes
+     */
+    public SparkDrawable(@NonNull Context context, @StyleRes int styleRes) {
+        this(context, 0, styleRes);
+    }
+
+    private SparkDrawable(@NonNull Context context, @AttrRes int defStyleAttr,
+            @StyleRes int defStyleRes) {
+        style = SparkStyle.obtain(context, null, defStyleAttr, defStyleRes);
+        style.initSparkLinePaint(sparkLinePaint);
+        style.initSparkFillPaint(sparkFillPaint, sparkLinePaint);
+        style.initBaseLinePaint(baseLinePaint);
+    }
+
+    /**
+     * Get the backing {@link SparkAdapter}
+     */
+    @Nullable
+    public SparkAdapter getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * Sets the backing {@link SparkAdapter} to generate the points to be graphed
+     */
+    public void setAdapter(@Nullable SparkAdapter adapter) {
+        if (this.adapter != null) {
+            this.adapter.unregisterDataSetObserver(dataSetObserver);
+        }
+        this.adapter = adapter;
+        if (this.adapter != null) {
+            this.adapter.registerDataSetObserver(dataSetObserver);
+        }
+        populatePath();
+    }
+
+    /**
+     * Sets the size this drawable reports as its intrinsic size, for use in spans, compound
+     * drawables and wrap_content {@link android.widget.ImageView}s. Pass -1 for no intrinsic size
+     * (the default).
+     */
+    public void setIntrinsicSize(int width, int height) {
+        intrinsicWidth = width;
+        intrinsicHeight = height;
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return intrinsicWidth;
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return intrinsicHeight;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+        populatePath();
+    }
+
+    private void populatePath() {
+        final Rect bounds = getBounds();
+        final int width = bounds.width(), height = bounds.height();
+        if (adapter == null || width == 0 || height == 0) {
+            geometry.clear();
+        } else {
+            // geometry is built at the origin, draw() translates it into the bounds
+            contentRect.set(0, 0, width, height);
+            geometry.setLayout(width, height, contentRect, style.lineWidth, style.fillType,
+                    style.cornerRadius);
+            geometry.build(adapter);
+        }
+        style.applyBaseLineShaders(sparkLinePaint, sparkFillPaint, geometry.scaledBaseLine,
+                height);
+        invalidateSelf();
+    }
+
+    @Override
+    public void draw(@NonNull Canvas canvas) {
+        if (geometry.isEmpty()) return;
+
+        final Rect bounds = getBounds();
+        final int saveCount = canvas.save();
+        canvas.translate(bounds.left, bounds.top);
+        geometry.draw(canvas, baseLinePaint, sparkFillPaint, sparkLinePaint);
+        canvas.restoreToCount(saveCount);
+    }
+
+    @Override
+    public void setAlpha(@IntRange(from = 0, to = 255) int alpha) {
+        if (this.alpha == alpha) return;
+        this.alpha = alpha;
+        sparkLinePaint.setAlpha(modulateAlpha(style.lineColor));
+        sparkFillPaint.setAlpha(modulateAlpha(style.fillColor));
+        baseLinePaint.setAlpha(modulateAlpha(style.baseLineColor));
+        invalidateSelf();
+    }
+
+    @Override
+    public int getAlpha() {
+        return alpha;
+    }
+
+    private int modulateAlpha(int color) {
+        return Color.alpha(color) * alpha / 255;
+    }
+
+    @Override
+    public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        sparkLinePaint.setColorFilter(colorFilter);
+        sparkFillPaint.setColorFilter(colorFilter);
+        baseLinePaint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    private final DataSetObserver dataSetObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            super.onChanged();
+            populatePath();
+        }
+
+        @Override
+        public void onInvalidated() {
+            super.onInvalidated();
+            geometry.clear();
+            invalidateSelf();
+        }
+    };
+}
@@ -0,0 +1,610 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.graphics.Canvas;
+import android.graphics.CornerPathEffect;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.os.Parcel;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.robinhood.spark.core.SparkMath;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The points and paths that a {@link SparkView} draws for a {@link SparkAdapter}'s data at one
+ * size and style. A geometry owns its point buffers and paths, and reuses their capacity every
+ * time it is rebuilt, so holding on to a few of them (e.g. one per visible list row) lets
+ * sparklines be swapped into views without allocating or rebuilding anything.
+ *
+ * Points are kept in data space, along with a data space path. Laying a geometry out for a new
+ * size or style only maps that path into view space with the {@link SparkView.ScaleHelper}'s
+ * matrix; the points themselves are never rescaled one by one.
+ */
+public final class SparkGeometry {
+    // the layout this geometry was built for
+    int width, height;
+    final RectF contentRect = new RectF();
+    float lineWidth;
+    @SparkView.FillType int fillType = SparkView.FillType.NONE;
+    float cornerRadius;
+
+    // the raw (data space) points, only the first count values of each buffer are valid. X values
+    // are rebased against xOrigin if the adapter has precise X values
+    float[] xs = new float[0];
+    float[] ys = new float[0];
+    int count;
+    double xOrigin;
+    private boolean hasBaseLine;
+    // the adapter the data was read from, and its data version at the time
+    @Nullable private SparkAdapter adapter;
+    private int dataVersion;
+    private float baseLine;
+    // the bounds that are displayed, the Y range of which is decided by the auto scale policy
+    final RectF dataBounds = new RectF();
+    // the Y range that the data (and base line) actually covers
+    private float dataMinY, dataMaxY;
+    private AutoScalePolicy autoScalePolicy = AutoScalePolicy.exact();
+    // true if dataBounds holds a range chosen by autoScalePolicy that it may want to keep
+    private boolean autoScaled;
+    private final float[] autoScaleRange = new float[2];
+    // scratch buffer for the ranges of the raw points
+    private final float[] range = new float[2];
+    @Nullable SparkView.ScaleHelper scaleHelper;
+
+    // the line through the raw points, in data space
+    private final Path dataPath = new Path();
+    // maps data space to view space
+    private final Matrix matrix = new Matrix();
+
+    // the view space paths that are drawn
+    final Path sparkPath = new Path();
+    final Path fillPath = new Path();
+    final Path baseLinePath = new Path();
+    // the scaled Y of the adapter's base line, or NaN if it doesn't have one
+    float scaledBaseLine = Float.NaN;
+
+    // applies the corner radius to the paths once, rather than to every draw of them
+    private final Paint smoothingPaint = new Paint();
+    // scratch path that smoothed geometry is written into before being copied back
+    private final Path smoothingPath = new Path();
+    // scratch buffers single points are read into when patching
+    private final float[] pointX = new float[1];
+    private final float[] pointY = new float[1];
+
+    public SparkGeometry() {
+        smoothingPaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * @return the number of points in this geometry, or 0 if it is empty.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return true if this geometry has nothing to draw.
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Draws this geometry: the base line, then the fill (if this geometry has one), then the line.
+     */
+    void draw(@NonNull Canvas canvas, @NonNull Paint baseLinePaint, @NonNull Paint sparkFillPaint,
+            @NonNull Paint sparkLinePaint) {
+        canvas.drawPath(baseLinePath, baseLinePaint);
+        if (fillType != SparkView.FillType.NONE) {
+            canvas.drawPath(fillPath, sparkFillPaint);
+        }
+        canvas.drawPath(sparkPath, sparkLinePaint);
+    }
+
+    /**
+     * Sets the layout that the next {@link #build(SparkAdapter)} scales points for.
+     */
+    void setLayout(int width, int height, @NonNull RectF contentRect, float lineWidth,
+            @SparkView.FillType int fillType, float cornerRadius) {
+        this.width = width;
+        this.height = height;
+        this.contentRect.set(contentRect);
+        this.lineWidth = lineWidth;
+        this.fillType = fillType;
+        if (this.cornerRadius != cornerRadius) {
+            this.cornerRadius = cornerRadius;
+            smoothingPaint.setPathEffect(
+                    cornerRadius != 0 ? new CornerPathEffect(cornerRadius) : null);
+        }
+    }
+
+    /**
+     * Sets the policy that decides the displayed Y range on the next build.
+     */
+    void setAutoScalePolicy(@NonNull AutoScalePolicy autoScalePolicy) {
+        this.autoScalePolicy = autoScalePolicy;
+    }
+
+    /**
+     * Forgets the currently displayed range, so the next build doesn't keep it. Used when this
+     * geometry starts showing unrelated data.
+     */
+    void resetAutoScale() {
+        autoScaled = false;
+    }
+
+    /**
+     * @return true if this geometry was laid out for the given layout, and can be drawn in its
+     * place without being rebuilt.
+     */
+    boolean hasLayout(int width, int height, @NonNull RectF contentRect, float lineWidth,
+            @SparkView.FillType int fillType, float cornerRadius) {
+        return this.width == width
+                && this.height == height
+                && this.contentRect.equals(contentRect)
+                && this.lineWidth == lineWidth
+                && this.fillType == fillType
+                && this.cornerRadius == cornerRadius;
+    }
+
+    /**
+     * Rebuilds this geometry from the adapter's data. The adapter is read exactly once, into
+     * {@link #xs} and {@link #ys}; bounds are computed from those buffers, which are then turned
+     * into paths without querying the adapter again.
+     *
+     * @return false if the adapter has fewer than 2 points, in which case this geometry is left
+     * empty.
+     */
+    boolean build(@NonNull SparkAdapter adapter) {
+        final int adapterCount = adapter.getCount();
+
+        // to draw anything, we need 2 or more points
+        if (adapterCount < 2 || width == 0 || height == 0) {
+            clear();
+            return false;
+        }
+
+        // read before the data, so a change notified during the build leaves this geometry stale
+        final int version = adapter.dataVersion;
+        // read the adapter's data in bulk
+        ensureCapacity(adapterCount);
+        adapter.getPoints(0, adapterCount, xs, ys);
+        count = adapterCount;
+        xOrigin = adapter.getXOrigin();
+        hasBaseLine = adapter.hasBaseLine();
+        baseLine = hasBaseLine ? adapter.getBaseLine() : 0;
+
+        updateDataBounds(adapter);
+        setSource(adapter, version);
+
+        populateDataPath();
+        layoutPaths();
+        return true;
+    }
+
+    /**
+     * Lays this geometry's existing data out for the layout last passed to
+     * {@link #setLayout(int, int, RectF, float, int, float)}, without reading the adapter or
+     * rescaling any points.
+     *
+     * @return false if this geometry is empty, in which case it must be built instead.
+     */
+    boolean relayout() {
+        if (count == 0 || width == 0 || height == 0) return false;
+
+        layoutPaths();
+        return true;
+    }
+
+    /**
+     * Decides the displayed bounds again, e.g. for a new auto scale policy, and lays this geometry
+     * out for them. Only the adapter's custom bounds are read, if it has any; the points are not.
+     *
+     * @return false if this geometry is empty, in which case it must be built instead.
+     */
+    boolean rebound(@NonNull SparkAdapter adapter) {
+        if (count == 0 || width == 0 || height == 0) return false;
+
+        if (adapter.hasCustomDataBounds()) {
+            dataBounds.set(adapter.getDataBounds());
+        } else {
+            applyAutoScale();
+        }
+        setSource(adapter, adapter.dataVersion);
+        layoutPaths();
+        return true;
+    }
+
+    /**
+     * Rebuilds only the fill path, for a new fill type that keeps the current scale.
+     */
+    void refill() {
+        if (count == 0) return;
+
+        // the fill is closed against the unsmoothed line
+        dataPath.transform(matrix, sparkPath);
+        populateFillPath();
+        smoothPath(sparkPath);
+        smoothPath(fillPath);
+    }
+
+    /**
+     * Updates the points in the given (inclusive) index range from the adapter, without reading
+     * any other points. The auto scale policy is consulted with the new data range, which is
+     * usually known without a rescan, and the geometry is laid out again only if the displayed
+     * range changes. This is only possible if no point moves along the X axis.
+     *
+     * @return false if the custom bounds or X values may have changed, in which case this
+     * geometry must be rebuilt with {@link #build(SparkAdapter)}. Points may have been partially
+     * updated.
+     */
+    boolean updatePoints(@NonNull SparkAdapter adapter, int from, int to) {
+        if (scaleHelper == null || from < 0 || to >= count || adapter.getCount() != count) {
+            return false;
+        }
+
+        final boolean customBounds = adapter.hasCustomDataBounds();
+        if (customBounds) {
+            // points may lie outside custom bounds, all that matters is that they're unchanged
+            final RectF bounds = adapter.getDataBounds();
+            if (bounds.left != dataBounds.left || bounds.top != dataBounds.top
+                    || bounds.right != dataBounds.right || bounds.bottom != dataBounds.bottom) {
+                return false;
+            }
+        }
+
+        boolean rescan = false;
+        for (int i = from; i <= to; i++) {
+            adapter.getPoints(i, 1, pointX, pointY);
+            if (pointX[0] != xs[i]) return false;
+
+            final float y = pointY[0];
+            // a point on the edge of the data range may be the only one holding it there
+            final float oldY = ys[i];
+            rescan |= oldY <= dataMinY || oldY >= dataMaxY;
+            dataMinY = Math.min(dataMinY, y);
+            dataMaxY = Math.max(dataMaxY, y);
+            ys[i] = y;
+        }
+
+        setSource(adapter, adapter.dataVersion);
+        populateDataPath();
+        if (!customBounds) {
+            if (rescan) {
+                scanDataRangeY();
+            }
+            final float top = dataBounds.top, bottom = dataBounds.bottom;
+            applyAutoScale();
+            if (dataBounds.top == top && dataBounds.bottom == bottom) {
+                // same scale, so only the changed points move
+                refill();
+                return true;
+            }
+        }
+        layoutPaths();
+        return true;
+    }
+
+    /**
+     * @return the view space X of the point at the given index
+     */
+    float getScaledX(int index) {
+        return scaleHelper.getX(xs[index]);
+    }
+
+    /**
+     * @return the view space Y of the point at the given index
+     */
+    float getScaledY(int index) {
+        return scaleHelper.getY(ys[index]);
+    }
+
+    /**
+     * @return the index of the point nearest to the given view space X
+     */
+    int getNearestIndex(float scaledX) {
+        return SparkMath.getNearestIndex(xs, count, scaleHelper.getRawX(scaledX));
+    }
+
+    /**
+     * @return a copy of this geometry's data and displayed bounds, which don't depend on its
+     * layout, or null if it is empty.
+     */
+    @Nullable
+    SavedData saveData() {
+        if (count == 0) return null;
+
+        final SavedData data = new SavedData();
+        data.xs = Arrays.copyOf(xs, count);
+        data.ys = Arrays.copyOf(ys, count);
+        data.xOrigin = xOrigin;
+        data.hasBaseLine = hasBaseLine;
+        data.baseLine = baseLine;
+        data.dataBounds.set(dataBounds);
+        data.dataMinY = dataMinY;
+        data.dataMaxY = dataMaxY;
+        data.autoScaled = autoScaled;
+        return data;
+    }
+
+    /**
+     * Replaces this geometry's data and displayed bounds with saved ones, in place of a
+     * {@link #build(SparkAdapter)} of the given adapter. The paths are not laid out until the next
+     * {@link #relayout()}.
+     */
+    void restoreData(@NonNull SavedData data, @NonNull SparkAdapter adapter) {
+        count = data.xs.length;
+        ensureCapacity(count);
+        System.arraycopy(data.xs, 0, xs, 0, count);
+        System.arraycopy(data.ys, 0, ys, 0, count);
+        xOrigin = data.xOrigin;
+        hasBaseLine = data.hasBaseLine;
+        baseLine = data.baseLine;
+        dataBounds.set(data.dataBounds);
+        dataMinY = data.dataMinY;
+        dataMaxY = data.dataMaxY;
+        autoScaled = data.autoScaled;
+        setSource(adapter, adapter.dataVersion);
+
+        populateDataPath();
+        scaleHelper = null;
+        sparkPath.rewind();
+        fillPath.rewind();
+        baseLinePath.rewind();
+        scaledBaseLine = Float.NaN;
+    }
+
+    /**
+     * Empties this geometry, keeping the capacity of its buffers and paths.
+     */
+    void clear() {
+        count = 0;
+        adapter = null;
+        autoScaled = false;
+        dataPath.rewind();
+        scaleHelper = null;
+        sparkPath.rewind();
+        fillPath.rewind();
+        baseLinePath.rewind();
+        scaledBaseLine = Float.NaN;
+    }
+
+    /**
+     * @return true if this geometry was built from the given adapter, and the adapter hasn't
+     * notified of any change since.
+     */
+    boolean isBuiltFrom(@NonNull SparkAdapter adapter) {
+        return count != 0 && this.adapter == adapter && dataVersion == adapter.dataVersion;
+    }
+
+    /**
+     * Records the adapter this geometry's data was read from, and the adapter's data version at
+     * the time, e.g. after building it from a copy of the adapter's data.
+     */
+    void setSource(@NonNull SparkAdapter adapter, int dataVersion) {
+        this.adapter = adapter;
+        this.dataVersion = dataVersion;
+    }
+
+    /**
+     * Rounds the corners of the given path in place, if a corner radius is set.
+     */
+    void smoothPath(@NonNull Path path) {
+        if (cornerRadius == 0 || path.isEmpty()) return;
+
+        smoothingPath.rewind();
+        smoothingPaint.getFillPath(path, smoothingPath);
+        path.set(smoothingPath);
+    }
+
+    /**
+     * Populates the {@linkplain #dataPath} from the raw points.
+     */
+    private void populateDataPath() {
+        dataPath.rewind();
+        dataPath.moveTo(xs[0], ys[0]);
+        for (int i = 1; i < count; i++) {
+            dataPath.lineTo(xs[i], ys[i]);
+        }
+    }
+
+    /**
+     * Scales the data to the current layout, and populates the view space paths. The line is
+     * mapped into view space before it is stroked, so the line width is never scaled.
+     */
+    private void layoutPaths() {
+        scaleHelper = new SparkView.ScaleHelper(dataBounds, xOrigin, contentRect, lineWidth,
+                fillType != SparkView.FillType.NONE);
+        scaleHelper.getMatrix(matrix);
+        dataPath.transform(matrix, sparkPath);
+
+        // the fill is closed against the raw line, then both are smoothed once and cached
+        populateFillPath();
+        smoothPath(sparkPath);
+        smoothPath(fillPath);
+
+        // make our base line path
+        baseLinePath.rewind();
+        if (hasBaseLine) {
+            scaledBaseLine = scaleHelper.getY(baseLine);
+            baseLinePath.moveTo(0, scaledBaseLine);
+            baseLinePath.lineTo(width, scaledBaseLine);
+        } else {
+            scaledBaseLine = Float.NaN;
+        }
+    }
+
+    /**
+     * Populates the {@linkplain #fillPath} from the {@linkplain #sparkPath}, closed against the
+     * fill edge. This is cached alongside the spark path, so drawing the fill never requires
+     * building geometry.
+     */
+    private void populateFillPath() {
+        fillPath.rewind();
+        if (count == 0) return;
+
+        populateFillPath(sparkPath, getScaledX(0), getScaledX(count - 1), fillPath);
+    }
+
+    /**
+     * Populates {@code fill} with the given view space line, e.g. an animation frame, closed
+     * against this geometry's fill edge. The line must run from left to right.
+     *
+     * @param left     the X of the line's first point
+     * @param right    the X of the line's last point
+     */
+    void populateFillPath(@NonNull Path line, float left, float right, @NonNull Path fill) {
+        fill.rewind();
+
+        final Float fillEdge = getFillEdge();
+        if (fillEdge == null || scaleHelper == null) return;
+
+        // for TOWARD_ZERO, closing against the zero line fills each segment toward zero, even if
+        // the sparkline crosses it
+        fill.addPath(line);
+        fill.lineTo(right, fillEdge);
+        fill.lineTo(left, fillEdge);
+        fill.close();
+    }
+
+    @Nullable
+    private Float getFillEdge() {
+        switch (fillType) {
+            case SparkView.FillType.NONE:
+                return null;
+            case SparkView.FillType.UP:
+                return contentRect.top;
+            case SparkView.FillType.DOWN:
+                return contentRect.bottom;
+            case SparkView.FillType.TOWARD_ZERO:
+                float zero = scaleHelper.getY(0F);
+                return Math.max(contentRect.top, Math.min(zero, contentRect.bottom));
+            default:
+                throw new IllegalStateException(
+                        String.format(Locale.US, "Unknown fill-type: %d", fillType)
+                );
+        }
+    }
+
+    /**
+     * Computes {@link #dataBounds} from the raw (unscaled) point buffers, with a Y range decided
+     * by the auto scale policy, unless the adapter overrides {@link SparkAdapter#getDataBounds()},
+     * in which case its bounds are used as-is.
+     */
+    private void updateDataBounds(SparkAdapter adapter) {
+        if (adapter.hasCustomDataBounds()) {
+            dataBounds.set(adapter.getDataBounds());
+            dataMinY = dataBounds.top;
+            dataMaxY = dataBounds.bottom;
+            autoScaled = false;
+            return;
+        }
+
+        SparkMath.computeRange(xs, count, range);
+        dataBounds.left = range[0];
+        dataBounds.right = range[1];
+
+        scanDataRangeY();
+        applyAutoScale();
+    }
+
+    /**
+     * Computes the Y range covered by the raw points and the base line.
+     */
+    private void scanDataRangeY() {
+        SparkMath.computeRange(ys, count, range);
+        dataMinY = hasBaseLine ? Math.min(range[0], baseLine) : range[0];
+        dataMaxY = hasBaseLine ? Math.max(range[1], baseLine) : range[1];
+    }
+
+    /**
+     * Sets the Y range of {@link #dataBounds} from the auto scale policy, which may keep the
+     * range that is currently displayed.
+     */
+    private void applyAutoScale() {
+        final float currentMin = autoScaled ? dataBounds.top : Float.NaN;
+        final float currentMax = autoScaled ? dataBounds.bottom : Float.NaN;
+        autoScalePolicy.getRange(dataMinY, dataMaxY, currentMin, currentMax, autoScaleRange);
+        dataBounds.top = autoScaleRange[0];
+        dataBounds.bottom = autoScaleRange[1];
+        autoScaled = true;
+    }
+
+    /**
+     * Grows the point buffers so they can hold at least {@code count} points. The buffers are
+     * reused across rebuilds and never shrink.
+     */
+    private void ensureCapacity(int count) {
+        if (xs.length < count) {
+            xs = new float[count];
+            ys = new float[count];
+        }
+    }
+
+    /**
+     * The part of a geometry that is worth keeping across configuration changes: reading it back
+     * skips reading the adapter and deciding the bounds, and only the layout is redone.
+     */
+    static final class SavedData {
+        float[] xs;
+        float[] ys;
+        double xOrigin;
+        boolean hasBaseLine;
+        float baseLine;
+        final RectF dataBounds = new RectF();
+        float dataMinY, dataMaxY;
+        boolean autoScaled;
+
+        int getCount() {
+            return xs.length;
+        }
+
+        void writeToParcel(@NonNull Parcel out) {
+            out.writeFloatArray(xs);
+            out.writeFloatArray(ys);
+            out.writeDouble(xOrigin);
+            out.writeInt(hasBaseLine ? 1 : 0);
+            out.writeFloat(baseLine);
+            dataBounds.writeToParcel(out, 0);
+            out.writeFloat(dataMinY);
+            out.writeFloat(dataMaxY);
+            out.writeInt(autoScaled ? 1 : 0);
+        }
+
+        @NonNull
+        static SavedData readFromParcel(@NonNull Parcel in) {
+            final SavedData data = new SavedData();
+            data.xs = in.createFloatArray();
+            data.ys = in.createFloatArray();
+            data.xOrigin = in.readDouble();
+            data.hasBaseLine = in.readInt() != 0;
+            data.baseLine = in.readFloat();
+            data.dataBounds.readFromParcel(in);
+            data.dataMinY = in.readFloat();
+            data.dataMaxY = in.readFloat();
+            data.autoScaled = in.readInt() != 0;
+            return data;
+        }
+    }
+}
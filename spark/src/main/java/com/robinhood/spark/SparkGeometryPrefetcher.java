@@ -0,0 +1,287 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.graphics.RectF;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Builds {@link SparkGeometry} for upcoming list rows on a background {@link Executor}, ahead of
+ * them being bound, so that binding a prefetched row is a constant-time swap rather than a rebuild.
+ * Call {@link #prefetch(long, SparkAdapter, SparkView)} for rows about to come on screen (e.g.
+ * from a RecyclerView.OnScrollListener, or a RecyclerView prefetch), then bind rows through
+ * {@link #bind(SparkView, long, SparkAdapter)}.
+ *
+ * The {@link SparkAdapter}s passed to this class are only read on the main thread: prefetching
+ * copies an adapter's points, and only the geometry is built from the copy on the executor's
+ * threads. Geometry built before its adapter last notified of a change is rebuilt when bound; if
+ * an adapter's data changes without a notification, call {@link #invalidate(long)}. All methods
+ * must be called on the main thread.
+ */
+public class SparkGeometryPrefetcher {
+    private final Executor executor;
+    private final int maxPrefetched;
+    private final Object lock = new Object();
+
+    // guarded by lock. In prefetch order, so the oldest prefetch is evicted first
+    private final LinkedHashMap<Long, Request> requests = new LinkedHashMap<>();
+    // guarded by lock. Geometries no longer in use, reused by later prefetches
+    private final ArrayDeque<SparkGeometry> pool = new ArrayDeque<>();
+
+    /**
+     * @param executor         the executor geometry is built on
+     * @param maxPrefetched    the maximum number of rows to hold prefetched geometry for; the
+     *                         oldest prefetch is dropped to make room for a new one
+     */
+    public SparkGeometryPrefetcher(@NonNull Executor executor, int maxPrefetched) {
+        if (maxPrefetched < 1) {
+            throw new IllegalArgumentException("maxPrefetched must be at least 1");
+        }
+        this.executor = executor;
+        this.maxPrefetched = maxPrefetched;
+    }
+
+    /**
+     * Starts building geometry for the given item in the background. The geometry is laid out
+     * for the template's current size and style, which should match the view the item will be
+     * bound to. Does nothing if the item is already prefetched with the same adapter, or if the
+     * template has not been laid out yet.
+     *
+     * @param itemId      a stable id for the item, as later passed to bind
+     * @param adapter     the item's adapter
+     * @param template    a laid out view with the same size and style as the item's view
+     */
+    public void prefetch(long itemId, @NonNull SparkAdapter adapter, @NonNull SparkView template) {
+        if (template.getWidth() == 0 || template.getHeight() == 0) return;
+
+        final Request request;
+        synchronized (lock) {
+            final Request existing = requests.get(itemId);
+            if (existing != null) {
+                if (existing.adapter == adapter
+                        && existing.dataVersion == adapter.dataVersion) {
+                    return;
+                }
+                cancelLocked(requests.remove(itemId));
+            }
+            if (requests.size() >= maxPrefetched) {
+                final Iterator<Request> eldest = requests.values().iterator();
+                cancelLocked(eldest.next());
+                eldest.remove();
+            }
+
+            final SparkGeometry recycled = pool.poll();
+            request = new Request(adapter, recycled != null ? recycled : new SparkGeometry());
+            requests.put(itemId, request);
+        }
+
+        // the layout and data are read here, on the main thread, so only the build runs in the
+        // background
+        template.layoutGeometry(request.geometry);
+        request.snapshot = new AdapterSnapshot(adapter);
+        executor.execute(request);
+    }
+
+    /**
+     * Binds the item to the view, swapping in its prefetched geometry if it finished building.
+     * Otherwise, this falls back to {@link SparkView#bind(long, SparkAdapter)}.
+     *
+     * @param view       the view to bind
+     * @param itemId     a stable id for the item, as passed to prefetch
+     * @param adapter    the item's adapter
+     */
+    public void bind(@NonNull SparkView view, long itemId, @Nullable SparkAdapter adapter) {
+        SparkGeometry geometry = null;
+        synchronized (lock) {
+            final Request request = requests.remove(itemId);
+            if (request != null) {
+                if (request.done && request.adapter == adapter) {
+                    geometry = request.geometry;
+                } else {
+                    cancelLocked(request);
+                }
+            }
+        }
+
+        final SparkGeometry unused = view.bind(itemId, adapter, geometry);
+        if (unused != null) {
+            synchronized (lock) {
+                recycleLocked(unused);
+            }
+        }
+    }
+
+    /**
+     * Drops any geometry prefetched for the given item, for instance because its data changed.
+     */
+    public void invalidate(long itemId) {
+        synchronized (lock) {
+            cancelLocked(requests.remove(itemId));
+        }
+    }
+
+    /**
+     * Drops all prefetched geometry.
+     */
+    public void clear() {
+        synchronized (lock) {
+            for (Map.Entry<Long, Request> entry : requests.entrySet()) {
+                cancelLocked(entry.getValue());
+            }
+            requests.clear();
+        }
+    }
+
+    private void cancelLocked(@Nullable Request request) {
+        if (request == null) return;
+        request.cancelled = true;
+        // a request that hasn't finished recycles its own geometry once it does
+        if (request.done) {
+            recycleLocked(request.geometry);
+        }
+    }
+
+    private void recycleLocked(@NonNull SparkGeometry geometry) {
+        if (pool.size() < maxPrefetched) {
+            geometry.clear();
+            pool.add(geometry);
+        }
+    }
+
+    private class Request implements Runnable {
+        final SparkAdapter adapter;
+        final int dataVersion;
+        final SparkGeometry geometry;
+        // the adapter's data, copied before the request is executed
+        AdapterSnapshot snapshot;
+        // guarded by lock
+        boolean done, cancelled;
+
+        Request(SparkAdapter adapter, SparkGeometry geometry) {
+            this.adapter = adapter;
+            dataVersion = adapter.dataVersion;
+            this.geometry = geometry;
+        }
+
+        @Override
+        public void run() {
+            synchronized (lock) {
+                if (cancelled) {
+                    done = true;
+                    recycleLocked(geometry);
+                    return;
+                }
+            }
+
+            // nothing else touches the geometry until done is set
+            if (geometry.build(snapshot)) {
+                geometry.setSource(adapter, dataVersion);
+            }
+
+            synchronized (lock) {
+                done = true;
+                if (cancelled) {
+                    recycleLocked(geometry);
+                }
+            }
+        }
+    }
+
+    /**
+     * A copy of an adapter's data, read on the main thread, that the geometry is built from in
+     * the background instead of the adapter itself.
+     */
+    private static final class AdapterSnapshot extends SparkAdapter {
+        private final float[] xs;
+        private final float[] ys;
+        private final double xOrigin;
+        private final boolean hasBaseLine;
+        private final float baseLine;
+        private final @Nullable RectF dataBounds;
+
+        AdapterSnapshot(@NonNull SparkAdapter adapter) {
+            final int count = adapter.getCount();
+            xs = new float[count];
+            ys = new float[count];
+            adapter.getPoints(0, count, xs, ys);
+            xOrigin = adapter.getXOrigin();
+            hasBaseLine = adapter.hasBaseLine();
+            baseLine = hasBaseLine ? adapter.getBaseLine() : 0;
+            dataBounds = adapter.hasCustomDataBounds() ? new RectF(adapter.getDataBounds()) : null;
+        }
+
+        @Override
+        public int getCount() {
+            return ys.length;
+        }
+
+        @NonNull
+        @Override
+        public Object getItem(int index) {
+            return ys[index];
+        }
+
+        @Override
+        public float getX(int index) {
+            return xs[index];
+        }
+
+        @Override
+        public float getY(int index) {
+            return ys[index];
+        }
+
+        @Override
+        public void getPoints(int startIndex, int count, @NonNull float[] xs, @NonNull float[] ys) {
+            System.arraycopy(this.xs, startIndex, xs, 0, count);
+            System.arraycopy(this.ys, startIndex, ys, 0, count);
+        }
+
+        @Override
+        public double getXOrigin() {
+            return xOrigin;
+        }
+
+        @Override
+        public boolean hasBaseLine() {
+            return hasBaseLine;
+        }
+
+        @Override
+        public float getBaseLine() {
+            return baseLine;
+        }
+
+        @Override
+        public boolean hasCustomDataBounds() {
+            return dataBounds != null;
+        }
+
+        @NonNull
+        @Override
+        public RectF getDataBounds() {
+            return dataBounds != null ? new RectF(dataBounds) : super.getDataBounds();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.support.annotation.AttrRes;
+import android.support.annotation.NonNull;
+import android.support.annotation.StyleRes;
+
+/**
+ * Draws sparklines without a {@link SparkView}, for instance into a {@link Bitmap} for a home
+ * screen widget, notification or shared image. Charts are scaled and drawn exactly as a
+ * {@link SparkView} with the same style and size would draw them.
+ *
+ * A renderer may be created and used on any thread, but is not thread safe: use one renderer per
+ * thread. Its buffers, paths and canvas are reused from one chart to the next, so rendering a
+ * batch of charts into reused bitmaps with a single renderer only allocates while the buffers
+ * grow, and for the base line gradients if the style has below-base-line colors.
+ */
+public class SparkRenderer {
+    private final SparkStyle style;
+    private final Paint sparkLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint sparkFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint baseLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final SparkGeometry geometry = new SparkGeometry();
+    private final RectF contentRect = new RectF();
+    // draws into the bitmap being rendered, which it holds only while rendering
+    private final Canvas bitmapCanvas = new Canvas();
+    private int paddingLeft, paddingTop, paddingRight, paddingBottom;
+
+    /**
+     * Creates a renderer with the default {@link SparkView} style of the context's theme.
+     */
+    public SparkRenderer(@NonNull Context context) {
+        this(context, R.attr.spark_SparkViewStyle, R.style.spark_SparkView);
+    }
+
+    /**
+     * Creates a renderer with the given style, which is used in place of the theme's
+     * {@code spark_SparkViewStyle} rather than underneath it.
+     *
+     * @param styleRes    a style that sets the {@code spark_} attributes
+     */
+    public SparkRenderer(@NonNull Context context, @StyleRes int styleRes) {
+        this(context, 0, styleRes);
+    }
+
+    private SparkRenderer(@NonNull Context context, @AttrRes int defStyleAttr,
+            @StyleRes int defStyleRes) {
+        style = SparkStyle.obtain(context, null, defStyleAttr, defStyleRes);
+        style.initSparkLinePaint(sparkLinePaint);
+        style.initSparkFillPaint(sparkFillPaint, sparkLinePaint);
+        style.initBaseLinePaint(baseLinePaint);
+    }
+
+    /**
+     * Sets the padding, in pixels, between the edges of each chart and its sparkline.
+     */
+    public void setPadding(int left, int top, int right, int bottom) {
+        paddingLeft = left;
+        paddingTop = top;
+        paddingRight = right;
+        paddingBottom = bottom;
+    }
+
+    /**
+     * Renders the adapter's data into a new {@link Bitmap} of the given size.
+     */
+    @NonNull
+    public Bitmap render(@NonNull SparkAdapter adapter, int width, int height) {
+        final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        render(adapter, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Renders the adapter's data over the contents of the given mutable {@link Bitmap}, using its
+     * full size. Reusing bitmaps this way renders a batch of charts without allocating them.
+     */
+    public void render(@NonNull SparkAdapter adapter, @NonNull Bitmap bitmap) {
+        bitmapCanvas.setBitmap(bitmap);
+        try {
+            draw(adapter, bitmapCanvas, bitmap.getWidth(), bitmap.getHeight());
+        } finally {
+            bitmapCanvas.setBitmap(null);
+        }
+    }
+
+    /**
+     * Draws the adapter's data onto the given {@link Canvas}, within a chart of the given size at
+     * the canvas's origin.
+     */
+    public void draw(@NonNull SparkAdapter adapter, @NonNull Canvas canvas, int width,
+            int height) {
+        contentRect.set(paddingLeft, paddingTop, width - paddingRight, height - paddingBottom);
+        geometry.setLayout(width, height, contentRect, style.lineWidth, style.fillType,
+                style.cornerRadius);
+        if (!geometry.build(adapter)) return;
+
+        style.applyBaseLineShaders(sparkLinePaint, sparkFillPaint, geometry.scaledBaseLine,
+                height);
+        geometry.draw(canvas, baseLinePaint, sparkFillPaint, sparkLinePaint);
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+import android.support.annotation.AttrRes;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.StyleRes;
+import android.util.AttributeSet;
+
+/**
+ * The values of {@link SparkView}'s styleable attributes, shared by everything that draws a
+ * sparkline so they all read and apply the attributes the same way.
+ */
+final class SparkStyle {
+    @ColorInt int lineColor;
+    @ColorInt int fillColor;
+    @ColorInt int belowBaseLineColor;
+    @ColorInt int belowBaseLineFillColor;
+    float lineWidth;
+    float cornerRadius;
+    @SparkView.FillType int fillType;
+    @ColorInt int baseLineColor;
+    float baseLineWidth;
+    @ColorInt int scrubLineColor;
+    float scrubLineWidth;
+    float scrubPointRadius;
+    boolean scrubEnabled;
+    boolean animateChanges;
+
+    /**
+     * Reads the {@link R.styleable#SparkView} attributes, the same way a {@link SparkView}
+     * inflated with the given arguments would.
+     */
+    @NonNull
+    static SparkStyle obtain(@NonNull Context context, @Nullable AttributeSet attrs,
+            @AttrRes int defStyleAttr, @StyleRes int defStyleRes) {
+        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.SparkView,
+                defStyleAttr, defStyleRes);
+
+        final SparkStyle style = new SparkStyle();
+        style.lineColor = a.getColor(R.styleable.SparkView_spark_lineColor, 0);
+        style.fillColor = a.getColor(R.styleable.SparkView_spark_fillColor, 0);
+        style.belowBaseLineColor = a.getColor(R.styleable.SparkView_spark_belowBaseLineColor,
+                style.lineColor);
+        style.belowBaseLineFillColor = a.getColor(
+                R.styleable.SparkView_spark_belowBaseLineFillColor, style.fillColor);
+        style.lineWidth = a.getDimension(R.styleable.SparkView_spark_lineWidth, 0);
+        style.cornerRadius = a.getDimension(R.styleable.SparkView_spark_cornerRadius, 0);
+
+        // for backwards compatibility, set fill type based on spark_fill first, then overwrite if
+        // new spark_fillType attribute is set
+        int legacyFill = a.getBoolean(R.styleable.SparkView_spark_fill, false)
+                ? SparkView.FillType.DOWN
+                : SparkView.FillType.NONE;
+        style.fillType = a.getInt(R.styleable.SparkView_spark_fillType, legacyFill);
+
+        style.baseLineColor = a.getColor(R.styleable.SparkView_spark_baseLineColor, 0);
+        style.baseLineWidth = a.getDimension(R.styleable.SparkView_spark_baseLineWidth, 0);
+        style.scrubEnabled = a.getBoolean(R.styleable.SparkView_spark_scrubEnabled, true);
+        style.scrubLineColor = a.getColor(R.styleable.SparkView_spark_scrubLineColor,
+                style.baseLineColor);
+        style.scrubLineWidth = a.getDimension(R.styleable.SparkView_spark_scrubLineWidth,
+                style.lineWidth);
+        style.scrubPointRadius = a.getDimension(R.styleable.SparkView_spark_scrubPointRadius, 0);
+        style.animateChanges = a.getBoolean(R.styleable.SparkView_spark_animateChanges, false);
+        a.recycle();
+        return style;
+    }
+
+    void initSparkLinePaint(@NonNull Paint paint) {
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setColor(lineColor);
+        paint.setStrokeWidth(lineWidth);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+    }
+
+    void initSparkFillPaint(@NonNull Paint paint, @NonNull Paint sparkLinePaint) {
+        paint.set(sparkLinePaint);
+        paint.setColor(fillColor);
+        paint.setStyle(Paint.Style.FILL);
+        paint.setStrokeWidth(0);
+    }
+
+    void initBaseLinePaint(@NonNull Paint paint) {
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setColor(baseLineColor);
+        paint.setStrokeWidth(baseLineWidth);
+    }
+
+    /**
+     * Splits the line and fill colors at the geometry's base line with hard-stop gradients, so
+     * both sides of the base line are colored by a single draw of a single path.
+     */
+    void applyBaseLineShaders(@NonNull Paint sparkLinePaint, @NonNull Paint sparkFillPaint,
+            float scaledBaseLine, int height) {
+        sparkLinePaint.setShader(
+                createBaseLineShader(lineColor, belowBaseLineColor, scaledBaseLine, height));
+        sparkFillPaint.setShader(
+                createBaseLineShader(fillColor, belowBaseLineFillColor, scaledBaseLine, height));
+    }
+
+    @Nullable
+    static Shader createBaseLineShader(@ColorInt int aboveColor, @ColorInt int belowColor,
+            float scaledBaseLine, int height) {
+        if (aboveColor == belowColor || Float.isNaN(scaledBaseLine) || height == 0) {
+            return null;
+        }
+
+        final float split = Math.max(0, Math.min(1, scaledBaseLine / height));
+        return new LinearGradient(0, 0, 0, height,
+                new int[] {aboveColor, aboveColor, belowColor, belowColor},
+                new float[] {0, split, split, 1},
+                Shader.TileMode.CLAMP);
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2016 Robinhood Markets, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.robinhood.spark;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feeds one stream of ticks to many {@link SparkView}s, e.g. a watchlist where a single quote
+ * stream updates a chart per symbol.
+ *
+ * The hub owns a series of points per key. Views {@link #bind(SparkView, Object) subscribe} to a
+ * series, and are notified of each of its changes right away; a {@link SparkView} already
+ * coalesces the changes it is notified of into one rebuild per display frame, however many ticks
+ * arrived during it. Views that aren't attached to a window aren't notified at all; they are
+ * notified once when they are attached again, if their series changed in the meantime.
+ *
+ * The hub only holds bound views weakly, and drops a view's subscription once the view is given
+ * another adapter. Series are kept until they are {@link #remove(Object) removed}.
+ *
+ * Must only be used from the main thread.
+ *
+ * @param <K> the type of the keys that identify each series, e.g. a symbol
+ */
+public class SparkTickHub<K> {
+    private final int maxCount;
+    private final Map<K, Series> series = new HashMap<>();
+
+    /**
+     * @param maxCount    the number of points to keep per series; older points are dropped
+     */
+    public SparkTickHub(int maxCount) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("maxCount must be positive");
+        }
+        this.maxCount = maxCount;
+    }
+
+    /**
+     * Adds a point to the end of the series with the given key, creating it if needed, and
+     * dropping its oldest point if it already has maxCount points.
+     */
+    public void add(@NonNull K key, float y) {
+        final Series series = getSeries(key);
+        series.add(y);
+        onSeriesChanged(series);
+    }
+
+    /**
+     * Removes every point from the series with the given key.
+     */
+    public void clear(@NonNull K key) {
+        final Series series = this.series.get(key);
+        if (series == null || series.count == 0) return;
+        series.clear();
+        onSeriesChanged(series);
+    }
+
+    /**
+     * Removes the series with the given key and all of its points, unbinding any views bound to
+     * it. Adding a point with the key again starts a new, empty series.
+     */
+    public void remove(@NonNull K key) {
+        final Series series = this.series.remove(key);
+        if (series == null) return;
+        for (Subscription subscription : new ArrayList<>(series.subscriptions)) {
+            final SparkView view = subscription.unsubscribe();
+            if (view != null && view.getAdapter() == subscription) {
+                view.setAdapter(null);
+            }
+        }
+    }
+
+    /**
+     * Sets the view's adapter to one that reads the series with the given key, replacing any
+     * series the view was previously bound to by this hub. Rebinding the same series is free.
+     */
+    public void bind(@NonNull SparkView view, @NonNull K key) {
+        final Subscription subscription = getSubscription(view);
+        final Series series = getSeries(key);
+        if (subscription != null) {
+            if (subscription.series == series) return;
+            subscription.unsubscribe();
+        }
+        view.setAdapter(new Subscription(this, series, view));
+    }
+
+    /**
+     * Removes the view's adapter, if it was bound by this hub.
+     */
+    public void unbind(@NonNull SparkView view) {
+        final Subscription subscription = getSubscription(view);
+        if (subscription == null) return;
+        subscription.unsubscribe();
+        view.setAdapter(null);
+    }
+
+    @Nullable
+    private Subscription getSubscription(@NonNull SparkView view) {
+        final SparkAdapter adapter = view.getAdapter();
+        if (adapter instanceof Subscription) {
+            final Subscription subscription = (Subscription) adapter;
+            if (subscription.hub == this) return subscription;
+        }
+        return null;
+    }
+
+    @NonNull
+    private Series getSeries(@NonNull K key) {
+        Series series = this.series.get(key);
+        if (series == null) {
+            series = new Series(maxCount);
+            this.series.put(key, series);
+        }
+        return series;
+    }
+
+    private void onSeriesChanged(@NonNull Series series) {
+        final List<Subscription> subscriptions = series.subscriptions;
+        // in reverse, so subscriptions can be dropped along the way
+        for (int i = subscriptions.size() - 1; i >= 0; i--) {
+            final Subscription subscription = subscriptions.get(i);
+            if (subscription.isCurrent()) {
+                subscription.onSeriesChanged();
+            } else {
+                // the view was collected or given another adapter
+                subscription.unsubscribe();
+            }
+        }
+    }
+
+    /**
+     * The points of a single key, in a ring buffer that fills up to maxCount.
+     */
+    private static final class Series {
+        private final float[] ys;
+        private int start;
+        private int count;
+        final List<Subscription> subscriptions = new ArrayList<>();
+
+        Series(int maxCount) {
+            ys = new float[maxCount];
+        }
+
+        void add(float y) {
+            if (count == ys.length) {
+                // drop the oldest point
+                ys[start] = y;
+                start = (start + 1) % ys.length;
+            } else {
+                ys[(start + count) % ys.length] = y;
+                count++;
+            }
+        }
+
+        void clear() {
+            start = 0;
+            count = 0;
+        }
+
+        float get(int index) {
+            return ys[(start + index) % ys.length];
+        }
+    }
+
+    /**
+     * The adapter of a single bound view, which tracks whether the view is attached. The view is
+     * only held weakly, so that the series doesn't keep it alive.
+     */
+    private static final class Subscription extends SparkAdapter
+            implements View.OnAttachStateChangeListener {
+        final SparkTickHub<?> hub;
+        final Series series;
+        private final WeakReference<SparkView> view;
+        private boolean attached;
+        // true if the series changed while the view was detached
+        private boolean stale;
+
+        Subscription(@NonNull SparkTickHub<?> hub, @NonNull Series series,
+                @NonNull SparkView view) {
+            this.hub = hub;
+            this.series = series;
+            this.view = new WeakReference<>(view);
+            attached = view.getWindowToken() != null;
+            series.subscriptions.add(this);
+            view.addOnAttachStateChangeListener(this);
+        }
+
+        /**
+         * @return true if the view is still around and this is still its adapter.
+         */
+        boolean isCurrent() {
+            final SparkView view = this.view.get();
+            return view != null && view.getAdapter() == this;
+        }
+
+        /**
+         * @return the view, if it is still around.
+         */
+        @Nullable
+        SparkView unsubscribe() {
+            series.subscriptions.remove(this);
+            final SparkView view = this.view.get();
+            if (view != null) {
+                view.removeOnAttachStateChangeListener(this);
+            }
+            return view;
+        }
+
+        void onSeriesChanged() {
+            if (attached) {
+                notifyDataSetChanged();
+            } else {
+                stale = true;
+            }
+        }
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            attached = true;
+            if (stale) {
+                stale = false;
+                notifyDataSetChanged();
+            }
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            attached = false;
+        }
+
+        @Override
+        public int getCount() {
+            return series.count;
+        }
+
+        @NonNull
+        @Override
+        public Object getItem(int index) {
+            return series.get(index);
+        }
+
+        @Override
+        public float getY(int index) {
+            return series.get(index);
+        }
+    }
+}
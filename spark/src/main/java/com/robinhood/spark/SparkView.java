@@ -17,17 +17,22 @@
 package com.robinhood.spark;
 
 import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.annotation.TargetApi;
 import android.content.Context;
-import android.content.res.TypedArray;
-import android.database.DataSetObserver;
 import android.graphics.Canvas;
-import android.graphics.CornerPathEffect;
+import android.graphics.ColorFilter;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.PixelFormat;
 import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Handler;
+import android.os.Parcel;
+import android.os.Parcelable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.IntDef;
 import android.support.annotation.NonNull;
@@ -36,14 +41,20 @@ import android.util.AttributeSet;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewConfiguration;
+import android.view.ViewGroup;
+import android.view.ViewParent;
 
 import com.robinhood.spark.animation.LineSparkAnimator;
+import com.robinhood.spark.animation.RetargetableSparkAnimator;
 import com.robinhood.spark.animation.SparkAnimator;
+import com.robinhood.spark.core.Bounds;
+import com.robinhood.spark.core.RangeIndex;
+import com.robinhood.spark.core.Scale;
+import com.robinhood.spark.core.SparkMath;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 
@@ -52,6 +63,22 @@ import java.util.Locale;
  */
 public class SparkView extends View implements ScrubGestureDetector.ScrubListener {
     private static final String TAG = "Spark";
+    private static final long NO_ITEM_ID = -1;
+    // the saved state of a whole window must fit in one binder transaction, so longer data is
+    // read from the adapter again rather than saved
+    private static final int MAX_SAVED_POINTS = 1000;
+
+    // the stages of the geometry that are out of date. Each stage implies the ones after it
+    // the adapter's data must be read again
+    private static final int DIRTY_DATA = 1;
+    // the displayed bounds must be decided again, from data that is still current
+    private static final int DIRTY_BOUNDS = 1 << 1;
+    // the data must be laid out again, for a new size, padding, line width or corner radius
+    private static final int DIRTY_LAYOUT = 1 << 2;
+    // only the fill path must be rebuilt
+    private static final int DIRTY_FILL = 1 << 3;
+    // only the paints' shaders must be updated
+    private static final int DIRTY_STYLE = 1 << 4;
 
     /**
      * Holds the fill type constants to be used with {@linkplain #getFillType()} and
@@ -91,6 +118,8 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     // styleable values
     @ColorInt private int lineColor;
     @ColorInt private int fillColor;
+    @ColorInt private int belowBaseLineColor;
+    @ColorInt private int belowBaseLineFillColor;
     private float lineWidth;
     private float cornerRadius;
     @FillType private int fillType = FillType.NONE;
@@ -98,31 +127,66 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     private float baseLineWidth;
     @ColorInt private int scrubLineColor;
     private float scrubLineWidth;
+    private float scrubPointRadius;
     private boolean scrubEnabled;
     private @Nullable SparkAnimator sparkAnimator;
+    private @NonNull AutoScalePolicy autoScalePolicy = AutoScalePolicy.exact();
 
     // the onDraw data
     private final Path renderPath = new Path();
-    private final Path sparkPath = new Path();
-    private final Path baseLinePath = new Path();
     private final Path scrubLinePath = new Path();
+    private @NonNull SparkGeometry geometry = new SparkGeometry();
 
     // adapter
     private @Nullable SparkAdapter adapter;
 
     // misc fields
-    private ScaleHelper scaleHelper;
     private Paint sparkLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private Paint sparkFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private Paint baseLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private Paint scrubLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private Paint scrubPointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     private @Nullable OnScrubListener scrubListener;
+    private @Nullable OnScrubValueListener scrubValueListener;
+    private @Nullable OnRangeScrubListener rangeScrubListener;
+    private boolean rangeScrubbing;
+    // built lazily over the raw Y values the first time a range is scrubbed after a rebuild
+    private final RangeIndex rangeIndex = new RangeIndex();
+    private boolean rangeIndexValid;
+    private int scrubIndex = -1;
+    private boolean scrubbing;
+    private float scrubPointX, scrubPointY;
+
+    // where supported, the scrub indicator is drawn in the parent's overlay rather than in our
+    // own, which would invalidate us, so moving it only replays the chart's recorded drawing
+    private final ScrubIndicator scrubIndicator = new ScrubIndicator();
+    private @Nullable ViewGroup scrubIndicatorHost;
     private @NonNull ScrubGestureDetector scrubGestureDetector;
     private @Nullable Animator pathAnimator;
+    // true while renderPath holds an animation frame rather than the final sparkPath
+    private boolean animationFrame;
+    // the fill of the current animation frame, closed against the frame's line
+    private final Path animationFillPath = new Path();
+    private final RectF animationFrameBounds = new RectF();
+    private FrameScheduler rebuildScheduler;
+    private boolean pendingAnimation;
+    // true if the next scheduled rebuild must rebuild everything, rather than patch dirty points
+    private boolean pendingFullRebuild;
+    // the (inclusive) range of points changed since the last rebuild, empty if start > end
+    private int dirtyStart = Integer.MAX_VALUE, dirtyEnd = -1;
+    // the DIRTY_ flags of the stages that still need updating, e.g. because the view couldn't be
+    // seen when they changed
+    private int dirtyFlags;
     private final RectF contentRect = new RectF();
 
-    private List<Float> xPoints;
-    private List<Float> yPoints;
+    // the id of the item last passed to bind(), if any
+    private long boundItemId = NO_ITEM_ID;
+    // the scaled Y of the base line the line and fill shaders are split at, or NaN if none
+    private float scaledBaseLine = Float.NaN;
+    private int baseLineShaderHeight;
+    // the shaders set on the line and fill paints to split them at the base line, if any
+    private @Nullable Shader lineBaseLineShader;
+    private @Nullable Shader fillBaseLineShader;
 
     public SparkView(Context context) {
         super(context);
@@ -146,61 +210,40 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     }
 
     private void init(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
-        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.SparkView,
-                defStyleAttr, defStyleRes);
-
-        lineColor = a.getColor(R.styleable.SparkView_spark_lineColor, 0);
-        fillColor = a.getColor(R.styleable.SparkView_spark_fillColor, 0);
-        lineWidth = a.getDimension(R.styleable.SparkView_spark_lineWidth, 0);
-        cornerRadius = a.getDimension(R.styleable.SparkView_spark_cornerRadius, 0);
-
-        // for backwards compatibility, set fill type based on spark_fill first, then overwrite if
-        // new spark_fillType attribute is set
-        int legacyFill = a.getBoolean(R.styleable.SparkView_spark_fill, false)
-                ? FillType.DOWN
-                : FillType.NONE;
-        int fillType = a.getInt(R.styleable.SparkView_spark_fillType, legacyFill);
-        setFillType(fillType);
-
-        baseLineColor = a.getColor(R.styleable.SparkView_spark_baseLineColor, 0);
-        baseLineWidth = a.getDimension(R.styleable.SparkView_spark_baseLineWidth, 0);
-        scrubEnabled = a.getBoolean(R.styleable.SparkView_spark_scrubEnabled, true);
-        scrubLineColor = a.getColor(R.styleable.SparkView_spark_scrubLineColor, baseLineColor);
-        scrubLineWidth = a.getDimension(R.styleable.SparkView_spark_scrubLineWidth, lineWidth);
-        boolean animateChanges = a.getBoolean(R.styleable.SparkView_spark_animateChanges, false);
-        a.recycle();
-
-        sparkLinePaint.setStyle(Paint.Style.STROKE);
-        sparkLinePaint.setColor(lineColor);
-        sparkLinePaint.setStrokeWidth(lineWidth);
-        sparkLinePaint.setStrokeCap(Paint.Cap.ROUND);
-        if (cornerRadius != 0) {
-            sparkLinePaint.setPathEffect(new CornerPathEffect(cornerRadius));
-        }
-
-        sparkFillPaint.set(sparkLinePaint);
-        sparkFillPaint.setColor(fillColor);
-        sparkFillPaint.setStyle(Paint.Style.FILL);
-        sparkFillPaint.setStrokeWidth(0);
-
-        baseLinePaint.setStyle(Paint.Style.STROKE);
-        baseLinePaint.setColor(baseLineColor);
-        baseLinePaint.setStrokeWidth(baseLineWidth);
+        final SparkStyle style = SparkStyle.obtain(context, attrs, defStyleAttr, defStyleRes);
+        lineColor = style.lineColor;
+        fillColor = style.fillColor;
+        belowBaseLineColor = style.belowBaseLineColor;
+        belowBaseLineFillColor = style.belowBaseLineFillColor;
+        lineWidth = style.lineWidth;
+        cornerRadius = style.cornerRadius;
+        setFillType(style.fillType);
+        baseLineColor = style.baseLineColor;
+        baseLineWidth = style.baseLineWidth;
+        scrubEnabled = style.scrubEnabled;
+        scrubLineColor = style.scrubLineColor;
+        scrubLineWidth = style.scrubLineWidth;
+        scrubPointRadius = style.scrubPointRadius;
+
+        style.initSparkLinePaint(sparkLinePaint);
+        style.initSparkFillPaint(sparkFillPaint, sparkLinePaint);
+        style.initBaseLinePaint(baseLinePaint);
 
         scrubLinePaint.setStyle(Paint.Style.STROKE);
         scrubLinePaint.setStrokeWidth(scrubLineWidth);
         scrubLinePaint.setColor(scrubLineColor);
         scrubLinePaint.setStrokeCap(Paint.Cap.ROUND);
 
+        scrubPointPaint.setStyle(Paint.Style.FILL);
+        scrubPointPaint.setColor(lineColor);
+
         final Handler handler = new Handler();
         final float touchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
         scrubGestureDetector = new ScrubGestureDetector(this, handler, touchSlop);
+        rebuildScheduler = new FrameScheduler(handler, rebuildRunnable);
         scrubGestureDetector.setEnabled(scrubEnabled);
         setOnTouchListener(scrubGestureDetector);
 
-        xPoints = new ArrayList<>();
-        yPoints = new ArrayList<>();
-
         if (isInEditMode()) {
             this.setAdapter(new SparkAdapter() {
                 private final float[] yData = new float[] {68,22,31,57,35,79,86,47,34,55,80,72,99,66,47,42,56,64,66,80,97,10,43,12,25,71,47,73,49,36};
@@ -211,7 +254,7 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
         }
 
         // for backward support
-        if (animateChanges) {
+        if (style.animateChanges) {
             sparkAnimator = new LineSparkAnimator();
         }
     }
@@ -220,93 +263,231 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     protected void onSizeChanged(int w, int h, int oldW, int oldH) {
         super.onSizeChanged(w, h, oldW, oldH);
         updateContentRect();
-        populatePath();
+        relayoutPath();
     }
 
-    /**
-     * Populates the {@linkplain #sparkPath} with points
-     */
-    private void populatePath() {
-        if (adapter == null) return;
-        if (getWidth() == 0 || getHeight() == 0) return;
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        // the overlay is in the parent's coordinates
+        scrubIndicator.setBounds(left, top, right, bottom);
+    }
 
-        final int adapterCount = adapter.getCount();
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        final ViewParent parent = getParent();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2
+                && parent instanceof ViewGroup) {
+            addScrubIndicatorToOverlay((ViewGroup) parent);
+        }
+        populatePathIfDirty();
+    }
 
-        // to draw anything, we need 2 or more points
-        if (adapterCount < 2) {
-            clearData();
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (scrubIndicatorHost != null) {
+            removeScrubIndicatorFromOverlay();
+        }
+        // anything pending or in-flight is caught up in one rebuild once we're visible again
+        if (rebuildScheduler.isScheduled()) {
+            dirtyFlags |= DIRTY_DATA;
+        }
+        cancelPendingRebuild();
+        if (pathAnimator != null && pathAnimator.isRunning()) {
+            pathAnimator.cancel();
+            dirtyFlags |= DIRTY_DATA;
+        }
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        populatePathIfDirty();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        populatePathIfDirty();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        final SavedState state = new SavedState(super.onSaveInstanceState());
+        // only save data that is up to date with the adapter, and that the adapter can identify
+        if (adapter != null && adapter.getDataId() != SparkAdapter.NO_DATA_ID
+                && geometry.getCount() <= MAX_SAVED_POINTS
+                && (dirtyFlags & (DIRTY_DATA | DIRTY_BOUNDS)) == 0
+                && !rebuildScheduler.isScheduled()) {
+            state.data = geometry.saveData();
+            state.dataId = adapter.getDataId();
+        }
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
             return;
         }
+        final SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        // restoring only helps if the adapter hasn't been read since it was set, i.e. before the
+        // first layout, and it must still have the saved data
+        final SparkGeometry.SavedData data = savedState.data;
+        if (data == null || adapter == null || !geometry.isEmpty()
+                || (dirtyFlags & DIRTY_DATA) == 0 || adapter.getDataId() != savedState.dataId
+                || adapter.getCount() != data.getCount()) {
+            return;
+        }
+        geometry.restoreData(data, adapter);
+        invalidateGeometry((dirtyFlags & ~(DIRTY_DATA | DIRTY_BOUNDS)) | DIRTY_LAYOUT);
+    }
 
-        scaleHelper = new ScaleHelper(adapter, contentRect, lineWidth, isFillInternal());
+    /**
+     * @return true if this view is attached to a visible window and it and all of its ancestors
+     * are visible. While false, rebuilds are deferred and animations are skipped.
+     */
+    private boolean canShowChanges() {
+        return isInEditMode() || (getWindowVisibility() == VISIBLE && isShown());
+    }
 
-        xPoints.clear();
-        yPoints.clear();
+    /**
+     * Performs the single catch-up update for changes that arrived while we couldn't be seen.
+     */
+    private void populatePathIfDirty() {
+        if (dirtyFlags != 0 && canShowChanges()) {
+            updateGeometry();
+        }
+    }
 
-        // make our main graph path
-        sparkPath.reset();
-        for (int i = 0; i < adapterCount; i++) {
-            final float x = scaleHelper.getX(adapter.getX(i));
-            final float y = scaleHelper.getY(adapter.getY(i));
+    /**
+     * Rebuilds the {@link #geometry} from the adapter's data, reusing its buffers and paths.
+     */
+    private void populatePath() {
+        invalidateGeometry(DIRTY_DATA);
+    }
 
-            // points to render graphic
-            // get points to animate
-            xPoints.add(x);
-            yPoints.add(y);
+    /**
+     * Lays the current {@link #geometry} out again for a new size or style, without reading the
+     * adapter or rescaling its points.
+     */
+    private void relayoutPath() {
+        invalidateGeometry(DIRTY_LAYOUT);
+    }
 
-            if (i == 0) {
-                sparkPath.moveTo(x, y);
-            } else {
-                sparkPath.lineTo(x, y);
-            }
+    /**
+     * Marks the given stages of the geometry as out of date, and brings them up to date right
+     * away if we can be seen.
+     *
+     * @param flags    a combination of the DIRTY_ flags
+     */
+    private void invalidateGeometry(int flags) {
+        dirtyFlags |= flags;
+        updateGeometry();
+    }
 
+    /**
+     * Recomputes only the earliest stage of the geometry that is out of date, and the stages that
+     * follow from it, then applies any style change.
+     */
+    private void updateGeometry() {
+        if (!canShowChanges()) return;
+        if (adapter == null) {
+            // there's no geometry to update, but a style change must still be applied later
+            dirtyFlags &= DIRTY_STYLE;
+            return;
         }
+        // keep the flags until we're laid out
+        if (getWidth() == 0 || getHeight() == 0) return;
+
+        final int flags = dirtyFlags;
+        dirtyFlags = 0;
 
-        // if we're filling the graph in, close the path's circuit
-        final Float fillEdge = getFillEdge();
-        if (fillEdge != null) {
-            final float lastX = scaleHelper.getX(adapter.getX(adapter.getCount() - 1));
-            // line up or down to the fill edge
-            sparkPath.lineTo(lastX + 20, getBottom());
-            sparkPath.lineTo(0, getBottom());
-            // line straight left to far edge of the view
-//            sparkPath.lineTo(getPaddingStart(), fillEdge);
-            // closes line back on the first point
-//            sparkPath.close();
+        if ((flags & DIRTY_DATA) != 0 || (geometry.isEmpty() && flags != DIRTY_STYLE)) {
+            layoutGeometry(geometry);
+            if (geometry.build(adapter)) {
+                onGeometryChanged();
+            } else {
+                clearData();
+            }
+        } else if ((flags & DIRTY_BOUNDS) != 0) {
+            layoutGeometry(geometry);
+            geometry.rebound(adapter);
+            onGeometryChanged();
+        } else if ((flags & DIRTY_LAYOUT) != 0) {
+            layoutGeometry(geometry);
+            geometry.relayout();
+            onGeometryChanged();
+        } else if ((flags & DIRTY_FILL) != 0) {
+            layoutGeometry(geometry);
+            geometry.refill();
+            onGeometryChanged();
         }
 
-        // make our base line path
-        baseLinePath.reset();
-        if (adapter.hasBaseLine()) {
-            float scaledBaseLine = scaleHelper.getY(adapter.getBaseLine());
-            baseLinePath.moveTo(0, scaledBaseLine);
-            baseLinePath.lineTo(getWidth(), scaledBaseLine);
+        // the base line shaders only follow the geometry's base line, not the colors
+        if ((flags & DIRTY_STYLE) != 0) {
+            updateStyle();
         }
+    }
 
-        renderPath.reset();
-        renderPath.addPath(sparkPath);
+    private void updateStyle() {
+        updateBaseLineShaders();
+        invalidate();
+    }
 
+    /**
+     * Resets everything derived from the previous {@link #geometry}, and redraws the new one.
+     */
+    private void onGeometryChanged() {
+        rangeIndexValid = false;
+        setScaledBaseLine(geometry.scaledBaseLine);
+        animationFrame = false;
         invalidate();
     }
 
+    private void setScaledBaseLine(float scaledBaseLine) {
+        if (Float.compare(this.scaledBaseLine, scaledBaseLine) == 0
+                && baseLineShaderHeight == getHeight()) {
+            return;
+        }
+        this.scaledBaseLine = scaledBaseLine;
+        updateBaseLineShaders();
+    }
+
+    /**
+     * Splits the line and fill colors at the base line with hard-stop gradients, so both sides of
+     * the base line are colored by a single draw of a single path.
+     */
+    private void updateBaseLineShaders() {
+        baseLineShaderHeight = getHeight();
+        lineBaseLineShader = applyBaseLineShader(sparkLinePaint, lineBaseLineShader,
+                lineColor, belowBaseLineColor);
+        fillBaseLineShader = applyBaseLineShader(sparkFillPaint, fillBaseLineShader,
+                fillColor, belowBaseLineFillColor);
+    }
+
+    /**
+     * Sets a base line shader on the paint if the colors on either side of the base line differ.
+     * Otherwise only removes the previous base line shader, leaving any shader set by the app.
+     *
+     * @return the shader that was set, or null if none was.
+     */
     @Nullable
-    private Float getFillEdge() {
-        switch (fillType) {
-            case FillType.NONE:
-                return null;
-            case FillType.UP:
-                return (float) getPaddingTop();
-            case FillType.DOWN:
-                return (float) getHeight() - getPaddingBottom();
-            case FillType.TOWARD_ZERO:
-                float zero = scaleHelper.getY(0F);
-                float bottom = (float) getHeight() - getPaddingBottom();
-                return Math.min(zero, bottom);
-            default:
-                throw new IllegalStateException(
-                        String.format(Locale.US, "Unknown fill-type: %d", fillType)
-                );
+    private Shader applyBaseLineShader(@NonNull Paint paint, @Nullable Shader previous,
+            @ColorInt int aboveColor, @ColorInt int belowColor) {
+        final Shader shader = SparkStyle.createBaseLineShader(aboveColor, belowColor,
+                scaledBaseLine, baseLineShaderHeight);
+        if (shader != null) {
+            paint.setShader(shader);
+        } else if (previous != null && paint.getShader() == previous) {
+            paint.setShader(null);
         }
+        return shader;
     }
 
     /**
@@ -318,11 +499,27 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      * @return the pixel coordinates of where this point is located in SparkView's bounds
      */
     public float getScaledX(float x) {
-        if (scaleHelper == null) {
+        if (geometry.scaleHelper == null) {
             Log.w(TAG, "getScaledX() - no scale available yet.");
             return x;
         }
-        return scaleHelper.getX(x);
+        return geometry.scaleHelper.getX(x);
+    }
+
+    /**
+     * Get the scaled (pixel) coordinate of your given precise x value, for adapters that return
+     * true from {@link SparkAdapter#hasPreciseX()}. If no scale is currently computed this method
+     * will return the x value rebased against {@link SparkAdapter#getXOrigin()}.
+     *
+     * @param x    the value to scale (should be the same units as your adapter's precise X values)
+     * @return the pixel coordinates of where this point is located in SparkView's bounds
+     */
+    public float getScaledPreciseX(double x) {
+        if (geometry.scaleHelper == null) {
+            Log.w(TAG, "getScaledPreciseX() - no scale available yet.");
+            return adapter == null ? (float) x : (float) (x - adapter.getXOrigin());
+        }
+        return geometry.scaleHelper.getPreciseX(x);
     }
 
     /**
@@ -334,11 +531,11 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      * @return the pixel coordinates of where this point is located in SparkView's bounds
      */
     public float getScaledY(float y) {
-        if (scaleHelper == null) {
+        if (geometry.scaleHelper == null) {
             Log.w(TAG, "getScaledX() - no scale available yet.");
             return y;
         }
-        return scaleHelper.getY(y);
+        return geometry.scaleHelper.getY(y);
     }
 
     /**
@@ -346,31 +543,39 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      */
     @NonNull
     public Path getSparkLinePath() {
-        return new Path(sparkPath);
+        return new Path(geometry.sparkPath);
     }
 
     /**
      * Set the path to animate in onDraw, used for getAnimation purposes
      */
     public void setAnimationPath(@NonNull Path animationPath) {
-        float fillY = getFillEdge() != null ? getFillEdge() : 0;
+        this.renderPath.set(animationPath);
+        geometry.smoothPath(renderPath);
+        this.animationFrame = true;
 
-        this.renderPath.reset();
-        this.renderPath.addPath(animationPath);
-//        this.renderPath.rLineTo(0, 0);
-        this.renderPath.rLineTo(0, fillType == FillType.UP ? -getHeight() : fillY);
+        // the fill follows the frame, whether the animator reveals or morphs the line
         if (fillType != FillType.NONE) {
-            this.renderPath.lineTo(0, fillY);
+            animationPath.computeBounds(animationFrameBounds, false);
+            geometry.populateFillPath(animationPath, animationFrameBounds.left,
+                    animationFrameBounds.right, animationFillPath);
+            geometry.smoothPath(animationFillPath);
         }
         invalidate();
     }
 
-    private void setScrubLine(float x) {
+    private void setScrubLine(float x, int index) {
         x = resolveBoundedScrubLine(x);
         scrubLinePath.reset();
         scrubLinePath.moveTo(x, getPaddingTop());
         scrubLinePath.lineTo(x, getHeight() - getPaddingBottom());
-        invalidate();
+
+        if (index < geometry.count) {
+            scrubPointX = geometry.getScaledX(index);
+            scrubPointY = geometry.getScaledY(index);
+        }
+
+        invalidateScrub();
     }
 
     /**
@@ -396,20 +601,64 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     public void setPadding(int left, int top, int right, int bottom) {
         super.setPadding(left, top, right, bottom);
         updateContentRect();
-        populatePath();
+        relayoutPath();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private void addScrubIndicatorToOverlay(@NonNull ViewGroup parent) {
+        scrubIndicator.setBounds(getLeft(), getTop(), getRight(), getBottom());
+        parent.getOverlay().add(scrubIndicator);
+        scrubIndicatorHost = parent;
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private void removeScrubIndicatorFromOverlay() {
+        scrubIndicatorHost.getOverlay().remove(scrubIndicator);
+        scrubIndicatorHost = null;
+    }
+
+    /**
+     * Invalidates only the scrub indicator, if it is drawn in the parent's overlay.
+     */
+    private void invalidateScrub() {
+        if (scrubIndicatorHost != null) {
+            scrubIndicator.invalidateSelf();
+        } else {
+            invalidate();
+        }
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        canvas.drawPath(baseLinePath, baseLinePaint);
+        drawChart(canvas);
 
-        if(fillType != FillType.NONE){
-            canvas.drawPath(renderPath, sparkFillPaint);
+        if (scrubIndicatorHost == null) {
+            drawScrubIndicator(canvas);
+        }
+    }
+
+    private void drawChart(Canvas canvas) {
+        if (!animationFrame) {
+            geometry.draw(canvas, baseLinePaint, sparkFillPaint, sparkLinePaint);
+            return;
+        }
+
+        canvas.drawPath(geometry.baseLinePath, baseLinePaint);
+
+        if (fillType != FillType.NONE) {
+            canvas.drawPath(animationFillPath, sparkFillPaint);
         }
 
         canvas.drawPath(renderPath, sparkLinePaint);
+    }
+
+    private void drawScrubIndicator(Canvas canvas) {
         canvas.drawPath(scrubLinePath, scrubLinePaint);
+
+        if (scrubbing && !rangeScrubbing && scrubPointRadius > 0) {
+            canvas.drawCircle(scrubPointX, scrubPointY, scrubPointRadius, scrubPointPaint);
+        }
     }
 
     /**
@@ -425,7 +674,25 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     public void setLineColor(@ColorInt int lineColor) {
         this.lineColor = lineColor;
         sparkLinePaint.setColor(lineColor);
-        invalidate();
+        scrubPointPaint.setColor(lineColor);
+        invalidateGeometry(DIRTY_STYLE);
+    }
+
+    /**
+     * Get the color of the sparkline where it is below the base line
+     */
+    @ColorInt public int getBelowBaseLineColor() {
+        return belowBaseLineColor;
+    }
+
+    /**
+     * Set the color of the sparkline where it is below the base line. Only takes effect if the
+     * {@link SparkAdapter} has a base line. Setting a color other than the line color replaces
+     * the shader of the spark line {@link Paint}.
+     */
+    public void setBelowBaseLineColor(@ColorInt int belowBaseLineColor) {
+        this.belowBaseLineColor = belowBaseLineColor;
+        invalidateGeometry(DIRTY_STYLE);
     }
 
     /**
@@ -441,7 +708,24 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     public void setFillColor(@ColorInt int fillColor) {
         this.fillColor = fillColor;
         sparkFillPaint.setColor(fillColor);
-        invalidate();
+        invalidateGeometry(DIRTY_STYLE);
+    }
+
+    /**
+     * Get the color of the spark fill where it is below the base line
+     */
+    @ColorInt public int getBelowBaseLineFillColor() {
+        return belowBaseLineFillColor;
+    }
+
+    /**
+     * Set the color of the spark fill where it is below the base line. Only takes effect if the
+     * {@link SparkAdapter} has a base line. Setting a color other than the fill color replaces
+     * the shader of the spark fill {@link Paint}.
+     */
+    public void setBelowBaseLineFillColor(@ColorInt int belowBaseLineFillColor) {
+        this.belowBaseLineFillColor = belowBaseLineFillColor;
+        invalidateGeometry(DIRTY_STYLE);
     }
 
     /**
@@ -455,9 +739,16 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      * Set the width in pixels of the sparkline's stroke
      */
     public void setLineWidth(float lineWidth) {
+        if (this.lineWidth == lineWidth) return;
         this.lineWidth = lineWidth;
         sparkLinePaint.setStrokeWidth(lineWidth);
-        invalidate();
+        // the line width insets the scale, unless the chart is filled
+        if (fillType != FillType.NONE) {
+            layoutGeometry(geometry);
+            invalidate();
+        } else {
+            relayoutPath();
+        }
     }
 
     /**
@@ -472,15 +763,29 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      * indicates that corners should not be rounded.
      */
     public void setCornerRadius(float cornerRadius) {
+        if (this.cornerRadius == cornerRadius) return;
         this.cornerRadius = cornerRadius;
-        if (cornerRadius != 0) {
-            sparkLinePaint.setPathEffect(new CornerPathEffect(cornerRadius));
-            sparkFillPaint.setPathEffect(new CornerPathEffect(cornerRadius));
-        } else {
-            sparkLinePaint.setPathEffect(null);
-            sparkFillPaint.setPathEffect(null);
-        }
-        invalidate();
+        relayoutPath();
+    }
+
+    /**
+     * Get the {@link AutoScalePolicy} that decides the range of Y values displayed.
+     */
+    @NonNull
+    public AutoScalePolicy getAutoScalePolicy() {
+        return autoScalePolicy;
+    }
+
+    /**
+     * Set the {@link AutoScalePolicy} that decides the range of Y values displayed. Defaults to
+     * {@link AutoScalePolicy#exact()}. Has no effect if the {@link SparkAdapter} overrides
+     * {@link SparkAdapter#getDataBounds()}.
+     */
+    public void setAutoScalePolicy(@NonNull AutoScalePolicy autoScalePolicy) {
+        if (this.autoScalePolicy == autoScalePolicy) return;
+        this.autoScalePolicy = autoScalePolicy;
+        geometry.resetAutoScale();
+        invalidateGeometry(DIRTY_BOUNDS);
     }
 
     /**
@@ -539,11 +844,6 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
         }
     }
 
-    @SuppressWarnings("deprecation")
-    private boolean isFillInternal() {
-        return isFill();
-    }
-
     @FillType
     public int getFillType() {
         return fillType;
@@ -561,8 +861,10 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
 
     public void setFillType(@FillType int fillType) {
         if (this.fillType != fillType) {
+            // switching between fill types keeps the scale, only the fill edge changes
+            final boolean rescale = this.fillType == FillType.NONE || fillType == FillType.NONE;
             this.fillType = fillType;
-            populatePath();
+            invalidateGeometry(rescale ? DIRTY_LAYOUT : DIRTY_FILL);
         }
     }
 
@@ -578,10 +880,13 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     /**
      * Set the {@link Paint} to be used to draw the sparkline. Warning: setting a paint other than
      * the instance returned by {@link #getSparkLinePaint()} may result in loss of style attributes
-     * specified on this view.
+     * specified on this view. The base line shader, if any, is moved over to the new paint.
      */
     public void setSparkLinePaint(@NonNull Paint pathPaint) {
         this.sparkLinePaint = pathPaint;
+        if (lineBaseLineShader != null) {
+            pathPaint.setShader(lineBaseLineShader);
+        }
         invalidate();
     }
 
@@ -589,10 +894,13 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     /**
      * Set the {@link Paint} to be used to draw the spark fill. Warning: setting a paint other than
      * the instance returned by {@link #getSparkFillPaint()} may result in loss of style attributes
-     * specified on this view.
+     * specified on this view. The base line shader, if any, is moved over to the new paint.
      */
     public void setSparkFillPaint(@NonNull Paint pathPaint) {
         this.sparkFillPaint = pathPaint;
+        if (fillBaseLineShader != null) {
+            pathPaint.setShader(fillBaseLineShader);
+        }
         invalidate();
     }
 
@@ -687,6 +995,42 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
         invalidate();
     }
 
+    /**
+     * Get the radius in pixels of the marker drawn over the point being scrubbed. 0 indicates no
+     * marker is drawn.
+     */
+    public float getScrubPointRadius() {
+        return scrubPointRadius;
+    }
+
+    /**
+     * Set the radius in pixels of the marker drawn over the point being scrubbed. Passing 0
+     * indicates that no marker should be drawn.
+     */
+    public void setScrubPointRadius(float scrubPointRadius) {
+        this.scrubPointRadius = scrubPointRadius;
+        invalidateScrub();
+    }
+
+    /**
+     * Get the {@link Paint} used to draw the scrub point marker. Any custom modifications to this
+     * {@link Paint} will not reflect until the next call to {@link #invalidate()}
+     */
+    @NonNull
+    public Paint getScrubPointPaint() {
+        return scrubPointPaint;
+    }
+
+    /**
+     * Set the {@link Paint} to be used to draw the scrub point marker. Warning: setting a paint
+     * other than the instance returned by {@link #getScrubPointPaint()} may result in loss of
+     * style attributes specified on this view.
+     */
+    public void setScrubPointPaint(@NonNull Paint scrubPointPaint) {
+        this.scrubPointPaint = scrubPointPaint;
+        invalidateScrub();
+    }
+
     /**
      * Return true if scrubbing is enabled on this view
      */
@@ -703,6 +1047,23 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
         invalidate();
     }
 
+    /**
+     * Return true if scrub touch events are resampled to the display frame.
+     */
+    public boolean isScrubResamplingEnabled() {
+        return scrubGestureDetector.isResamplingEnabled();
+    }
+
+    /**
+     * Set whether or not to resample scrub touch events to the display frame. When enabled, the
+     * scrub line moves at most once per frame, following a touch position interpolated (or
+     * slightly predicted) from the batched touch samples, and the {@link OnScrubListener} is only
+     * notified when the scrub moves onto a different point.
+     */
+    public void setScrubResamplingEnabled(boolean scrubResamplingEnabled) {
+        scrubGestureDetector.setResamplingEnabled(scrubResamplingEnabled);
+    }
+
     /**
      * Get the current {@link OnScrubListener}
      */
@@ -718,6 +1079,39 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
         this.scrubListener = scrubListener;
     }
 
+    /**
+     * Get the current {@link OnScrubValueListener}
+     */
+    @Nullable
+    public OnScrubValueListener getScrubValueListener() {
+        return scrubValueListener;
+    }
+
+    /**
+     * Set an {@link OnScrubValueListener} to be notified of the user's scrubbing gestures without
+     * any allocation. It may be used alongside an {@link OnScrubListener}.
+     */
+    public void setScrubValueListener(@Nullable OnScrubValueListener scrubValueListener) {
+        this.scrubValueListener = scrubValueListener;
+    }
+
+    /**
+     * Get the current {@link OnRangeScrubListener}
+     */
+    @Nullable
+    public OnRangeScrubListener getRangeScrubListener() {
+        return rangeScrubListener;
+    }
+
+    /**
+     * Set an {@link OnRangeScrubListener} to be notified when the user scrubs a range with two
+     * fingers. Range scrubbing is only enabled while a listener is set.
+     */
+    public void setRangeScrubListener(@Nullable OnRangeScrubListener rangeScrubListener) {
+        this.rangeScrubListener = rangeScrubListener;
+        scrubGestureDetector.setRangeEnabled(rangeScrubListener != null);
+    }
+
     /**
      * Get the backing {@link SparkAdapter}
      */
@@ -730,14 +1124,112 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      * Sets the backing {@link SparkAdapter} to generate the points to be graphed
      */
     public void setAdapter(@Nullable SparkAdapter adapter) {
+        swapAdapter(adapter);
+        boundItemId = NO_ITEM_ID;
+        populatePath();
+    }
+
+    /**
+     * Binds the {@link SparkAdapter} for the given item, for use in recycled views such as
+     * RecyclerView rows. Rebinding the item that is already bound, with the same adapter and no
+     * pending changes, does nothing; otherwise the geometry is rebuilt in place, reusing this
+     * view's buffers and paths.
+     *
+     * @param itemId     a stable id for the item, e.g. RecyclerView.Adapter#getItemId(int)
+     * @param adapter    the item's adapter
+     */
+    public void bind(long itemId, @Nullable SparkAdapter adapter) {
+        bind(itemId, adapter, null);
+    }
+
+    /**
+     * Binds the {@link SparkAdapter} for the given item, along with a {@link SparkGeometry}
+     * precomputed for it (see {@link #bind(long, SparkAdapter)}). If the geometry was built from
+     * this adapter, and the adapter hasn't notified of any change since, it is swapped in and
+     * nothing is rebuilt: if it was built for a different size or style it is only laid out again,
+     * without reading the adapter. Otherwise the geometry is ignored, and this view's own geometry
+     * is rebuilt from the adapter as by {@link #bind(long, SparkAdapter)}.
+     *
+     * @param itemId      a stable id for the item, e.g. RecyclerView.Adapter#getItemId(int)
+     * @param adapter     the item's adapter
+     * @param geometry    geometry precomputed from the adapter, or null
+     * @return the geometry no longer in use, which the caller owns and may reuse: this view's
+     * previous geometry if the given one was swapped in, otherwise the given geometry.
+     */
+    @Nullable
+    public SparkGeometry bind(long itemId, @Nullable SparkAdapter adapter,
+            @Nullable SparkGeometry geometry) {
+        if (itemId != NO_ITEM_ID && itemId == boundItemId && adapter == this.adapter
+                && dirtyFlags == 0 && !rebuildScheduler.isScheduled()) {
+            return geometry;
+        }
+
+        swapAdapter(adapter);
+        boundItemId = itemId;
+        if (pathAnimator != null) {
+            pathAnimator.cancel();
+        }
+
+        if (adapter != null && geometry != null && geometry.isBuiltFrom(adapter)
+                && getWidth() != 0 && getHeight() != 0) {
+            if (!geometry.hasLayout(getWidth(), getHeight(), contentRect, lineWidth, fillType,
+                    cornerRadius)) {
+                layoutGeometry(geometry);
+                geometry.relayout();
+            }
+            final SparkGeometry previous = this.geometry;
+            this.geometry = geometry;
+            final int flags = dirtyFlags;
+            dirtyFlags = 0;
+            onGeometryChanged();
+            if ((flags & DIRTY_STYLE) != 0) {
+                updateStyle();
+            }
+            return previous;
+        }
+
+        populatePath();
+        return geometry;
+    }
+
+    /**
+     * Builds a {@link SparkGeometry} from the adapter's current data for this view's current size
+     * and style, to be passed to {@link #bind(long, SparkAdapter, SparkGeometry)} later.
+     *
+     * @param adapter     the adapter to read
+     * @param recycled    a geometry to rebuild in place, or null to allocate a new one
+     * @return the built geometry, which is empty if the adapter has fewer than 2 points or this
+     * view has not been laid out yet.
+     */
+    @NonNull
+    public SparkGeometry buildGeometry(@NonNull SparkAdapter adapter,
+            @Nullable SparkGeometry recycled) {
+        final SparkGeometry geometry = recycled != null ? recycled : new SparkGeometry();
+        layoutGeometry(geometry);
+        geometry.build(adapter);
+        return geometry;
+    }
+
+    /**
+     * Lays out the given geometry for this view's current size and style, without building it.
+     */
+    void layoutGeometry(@NonNull SparkGeometry geometry) {
+        geometry.setLayout(getWidth(), getHeight(), contentRect, lineWidth, fillType,
+                cornerRadius);
+        geometry.setAutoScalePolicy(autoScalePolicy);
+    }
+
+    private void swapAdapter(@Nullable SparkAdapter adapter) {
         if (this.adapter != null) {
             this.adapter.unregisterDataSetObserver(dataSetObserver);
         }
+        cancelPendingRebuild();
         this.adapter = adapter;
+        // a range kept for the previous data means nothing for the new data
+        geometry.resetAutoScale();
         if (this.adapter != null) {
             this.adapter.registerDataSetObserver(dataSetObserver);
         }
-        populatePath();
     }
 
     /**
@@ -746,7 +1238,11 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      */
     @NonNull
     public List<Float> getXPoints() {
-        return new ArrayList<>(xPoints);
+        final List<Float> points = new ArrayList<>(geometry.count);
+        for (int i = 0; i < geometry.count; i++) {
+            points.add(geometry.getScaledX(i));
+        }
+        return points;
     }
 
     /**
@@ -755,10 +1251,35 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      */
     @NonNull
     public List<Float> getYPoints() {
-        return new ArrayList<>(yPoints);
+        final List<Float> points = new ArrayList<>(geometry.count);
+        for (int i = 0; i < geometry.count; i++) {
+            points.add(geometry.getScaledY(i));
+        }
+        return points;
+    }
+
+    /**
+     * @return the number of points currently graphed
+     */
+    public int getPointCount() {
+        return geometry.count;
+    }
+
+    /**
+     * Copies the current graphic points into the given arrays, without allocating. Both arrays
+     * must hold at least {@link #getPointCount()} values.
+     */
+    public void getScaledPoints(@NonNull float[] xPoints, @NonNull float[] yPoints) {
+        for (int i = 0; i < geometry.count; i++) {
+            xPoints[i] = geometry.getScaledX(i);
+            yPoints[i] = geometry.getScaledY(i);
+        }
     }
 
     private void doPathAnimation() {
+        // continue a running animation from where it is, rather than starting over
+        if (retargetAnimation()) return;
+
         if (pathAnimator != null) {
             pathAnimator.cancel();
         }
@@ -766,10 +1287,35 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
         pathAnimator = getAnimator();
 
         if (pathAnimator != null) {
+            // animators may be reused from one animation to the next, so only listen once
+            pathAnimator.removeListener(animationEndListener);
+            pathAnimator.addListener(animationEndListener);
             pathAnimator.start();
         }
     }
 
+    /**
+     * Points a running animation at the current geometry, if the animator supports it.
+     *
+     * @return false if no animation was retargeted.
+     */
+    private boolean retargetAnimation() {
+        return pathAnimator != null && pathAnimator.isRunning()
+                && sparkAnimator instanceof RetargetableSparkAnimator
+                && ((RetargetableSparkAnimator) sparkAnimator).retarget(this);
+    }
+
+    private final Animator.AnimatorListener animationEndListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            // ended or cancelled, the last frame is stale either way
+            if (animation == pathAnimator && animationFrame) {
+                animationFrame = false;
+                invalidate();
+            }
+        }
+    };
+
     @Nullable
     private Animator getAnimator() {
         if (sparkAnimator != null) {
@@ -780,71 +1326,42 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
     }
 
     private void clearData() {
-        scaleHelper = null;
-        renderPath.reset();
-        sparkPath.reset();
-        baseLinePath.reset();
-        invalidate();
+        geometry.clear();
+        renderPath.rewind();
+        onGeometryChanged();
     }
 
     /**
-     * Helper class for handling scaling logic.
+     * Helper class for handling scaling logic, for Android's {@link RectF} bounds.
      */
-    static class ScaleHelper {
-        // the width and height of the view
-        final float width, height;
-        final int size;
-        // the scale factor for the Y values
-        final float xScale, yScale;
-        // translates the Y values back into the bounding rect after being scaled
-        final float xTranslation, yTranslation;
+    static class ScaleHelper extends Scale {
 
         public ScaleHelper(SparkAdapter adapter, RectF contentRect, float lineWidth, boolean fill) {
-            final float leftPadding = contentRect.left;
-            final float topPadding = contentRect.top;
-
-            // subtract lineWidth to offset for 1/2 of the line bleeding out of the content box on
-            // either side of the view
-            final float lineWidthOffset = fill ? 0 : lineWidth;
-            this.width = contentRect.width() - lineWidthOffset;
-            this.height = contentRect.height() - lineWidthOffset;
-
-            this.size = adapter.getCount();
-
-            // get data bounds from adapter
-            RectF bounds = adapter.getDataBounds();
-
-            // if data is a line (which technically has no size), expand bounds to center the data
-            bounds.inset(bounds.width() == 0 ? -1 : 0, bounds.height() == 0 ? -1 : 0);
-
-            final float minX = bounds.left;
-            final float maxX = bounds.right;
-            final float minY = bounds.top;
-            final float maxY = bounds.bottom;
-
-            // xScale will compress or expand the min and max x values to be just inside the view
-            this.xScale = width / (maxX - minX);
-            // xTranslation will move the x points back between 0 - width
-            this.xTranslation = leftPadding - (minX * xScale) + (lineWidthOffset / 2);
-            // yScale will compress or expand the min and max y values to be just inside the view
-            this.yScale = height / (maxY - minY);
-            // yTranslation will move the y points back between 0 - height
-            this.yTranslation = minY * yScale + topPadding + (lineWidthOffset / 2);
+            this(adapter.getDataBounds(), adapter.getXOrigin(), contentRect, lineWidth, fill);
         }
 
         /**
-         * Given the 'raw' X value, scale it to fit within our view.
+         * @param bounds    the data bounds to fit within contentRect, which are left unchanged
+         * @param xOrigin   the precise X value the bounds' X values are rebased against
          */
-        public float getX(float rawX) {
-            return rawX * xScale + xTranslation;
+        public ScaleHelper(RectF bounds, double xOrigin, RectF contentRect, float lineWidth,
+                boolean fill) {
+            super(toBounds(bounds), xOrigin, contentRect.left, contentRect.top,
+                    contentRect.width(), contentRect.height(), lineWidth, fill);
+        }
+
+        private static Bounds toBounds(RectF bounds) {
+            // Scale expands bounds with no width or height itself, to center the data
+            return new Bounds(bounds.left, bounds.top, bounds.right, bounds.bottom);
         }
 
         /**
-         * Given the 'raw' Y value, scale it to fit within our view. This method also 'flips' the
-         * value to be ready for drawing.
+         * Sets the given matrix to map 'raw' points to scaled points, the same way
+         * {@link #getX(float)} and {@link #getY(float)} do.
          */
-        public float getY(float rawY) {
-            return height - (rawY * yScale) + yTranslation;
+        public void getMatrix(Matrix matrix) {
+            matrix.setScale(xScale, -yScale);
+            matrix.postTranslate(xTranslation, height + yTranslation);
         }
     }
 
@@ -881,50 +1398,198 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
      * returns the nearest index (into {@link #adapter}'s data) for the given x coordinate.
      */
     static int getNearestIndex(List<Float> points, float x) {
-        int index = Collections.binarySearch(points, x);
-
-        // if binary search returns positive, we had an exact match, return that index
-        if (index >= 0) return index;
-
-        // otherwise, calculate the binary search's specified insertion index
-        index = - 1 - index;
-
-        // if we're inserting at 0, then our guaranteed nearest index is 0
-        if (index == 0) return index;
-
-        // if we're inserting at the very end, then our guaranteed nearest index is the final one
-        if (index == points.size()) return --index;
-
-        // otherwise we need to check which of our two neighbors we're closer to
-        final float deltaUp = points.get(index) - x;
-        final float deltaDown = x - points.get(index - 1);
-        if (deltaUp > deltaDown) {
-            // if the below neighbor is closer, decrement our index
-            index--;
+        final int size = points.size();
+        final float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = points.get(i);
         }
+        return getNearestIndex(values, size, x);
+    }
 
-        return index;
+    /**
+     * returns the nearest index (into {@link #adapter}'s data) for the given x coordinate, given
+     * the first {@code size} sorted values of {@code points}.
+     */
+    static int getNearestIndex(float[] points, int size, float x) {
+        return SparkMath.getNearestIndex(points, size, x);
     }
 
     @Override
     public void onScrubbed(float x, float y) {
-        if (adapter == null || adapter.getCount() == 0) return;
-        if (scrubListener != null) {
+        // lifting one finger of a range scrub continues it as a single-finger scrub
+        if (rangeScrubbing) {
+            rangeScrubbing = false;
+            if (rangeScrubListener != null) rangeScrubListener.onRangeScrubEnded();
+        }
+        if (adapter == null || geometry.isEmpty()) return;
+        int index = geometry.getNearestIndex(x);
+        if (scrubListener != null || scrubValueListener != null) {
             getParent().requestDisallowInterceptTouchEvent(true);
-            int index = getNearestIndex(xPoints, x);
-            if (scrubListener != null) {
-                scrubListener.onScrubbed(adapter.getItem(index), x);
+            // when resampling, only report scrubs that land on a new point
+            if (!scrubGestureDetector.isResamplingEnabled() || index != scrubIndex) {
+                if (scrubValueListener != null) {
+                    dispatchScrubValue(index, x);
+                }
+                if (scrubListener != null) {
+                    scrubListener.onScrubbed(adapter.getItem(index), x);
+                }
             }
         }
+        scrubIndex = index;
+        scrubbing = true;
+
+        setScrubLine(x, index);
+    }
+
+    @Override
+    public void onRangeScrubbed(float x1, float x2) {
+        if (adapter == null || geometry.count == 0 || rangeScrubListener == null) return;
+        getParent().requestDisallowInterceptTouchEvent(true);
+
+        final int startIndex = geometry.getNearestIndex(Math.min(x1, x2));
+        final int endIndex = geometry.getNearestIndex(Math.max(x1, x2));
+
+        final float[] ys = geometry.ys;
+        if (!rangeIndexValid) {
+            rangeIndex.build(ys, geometry.count);
+            rangeIndexValid = true;
+        }
+        final int lowIndex = rangeIndex.indexOfMin(startIndex, endIndex);
+        final int highIndex = rangeIndex.indexOfMax(startIndex, endIndex);
+
+        rangeScrubListener.onRangeScrubbed(startIndex, endIndex,
+                ys[startIndex], ys[endIndex], ys[lowIndex], ys[highIndex]);
+
+        scrubIndex = -1;
+        scrubbing = true;
+        rangeScrubbing = true;
+        setRangeScrubLines(geometry.getScaledX(startIndex), geometry.getScaledX(endIndex));
+    }
 
-        setScrubLine(x);
+    private void setRangeScrubLines(float startX, float endX) {
+        startX = resolveBoundedScrubLine(startX);
+        endX = resolveBoundedScrubLine(endX);
+        scrubLinePath.reset();
+        scrubLinePath.moveTo(startX, getPaddingTop());
+        scrubLinePath.lineTo(startX, getHeight() - getPaddingBottom());
+        scrubLinePath.moveTo(endX, getPaddingTop());
+        scrubLinePath.lineTo(endX, getHeight() - getPaddingBottom());
+        invalidateScrub();
     }
 
     @Override
     public void onScrubEnded() {
+        scrubIndex = -1;
+        scrubbing = false;
         scrubLinePath.reset();
         if (scrubListener != null) scrubListener.onScrubbed(null, 0.0f);
-        invalidate();
+        if (scrubValueListener != null) scrubValueListener.onScrubEnded();
+        if (rangeScrubbing && rangeScrubListener != null) rangeScrubListener.onRangeScrubEnded();
+        rangeScrubbing = false;
+        invalidateScrub();
+    }
+
+    /**
+     * Reports the scrubbed point to {@link #scrubValueListener} using primitives only.
+     */
+    private void dispatchScrubValue(int index, float scrubX) {
+        final int count = geometry.count;
+        if (index >= count) return;
+        final float[] xs = geometry.xs, ys = geometry.ys;
+
+        final float x = xs[index];
+        final float y = ys[index];
+
+        // linearly interpolate Y between the points on either side of the scrub position
+        float interpolatedY = y;
+        final float rawScrubX = geometry.scaleHelper.getRawX(scrubX);
+        final int left = rawScrubX < x ? index - 1 : index;
+        final int right = left + 1;
+        if (left >= 0 && right < count) {
+            final float span = xs[right] - xs[left];
+            if (span > 0) {
+                final float fraction = (rawScrubX - xs[left]) / span;
+                interpolatedY = ys[left] + (ys[right] - ys[left]) * fraction;
+            }
+        }
+
+        scrubValueListener.onScrubbed(index, x, y, geometry.getScaledX(index),
+                geometry.getScaledY(index), interpolatedY);
+    }
+
+    /**
+     * Draws the scrub indicator in the parent's overlay, over this view. Only this view's
+     * position and translation are followed, not its scale or rotation.
+     */
+    private final class ScrubIndicator extends Drawable {
+        @Override
+        public void draw(@NonNull Canvas canvas) {
+            if (getVisibility() != VISIBLE) return;
+
+            final int saveCount = canvas.save();
+            canvas.translate(getX(), getY());
+            canvas.clipRect(0, 0, getWidth(), getHeight());
+            drawScrubIndicator(canvas);
+            canvas.restoreToCount(saveCount);
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(@Nullable ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+
+    /**
+     * Keeps the geometry's data and displayed bounds across configuration changes, so the chart
+     * is only laid out again rather than rebuilt from the adapter.
+     */
+    static class SavedState extends BaseSavedState {
+        @Nullable SparkGeometry.SavedData data;
+        // the adapter's id for the saved data
+        long dataId = SparkAdapter.NO_DATA_ID;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        SavedState(Parcel in) {
+            super(in);
+            if (in.readInt() != 0) {
+                data = SparkGeometry.SavedData.readFromParcel(in);
+                dataId = in.readLong();
+            }
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeInt(data != null ? 1 : 0);
+            if (data != null) {
+                data.writeToParcel(out);
+                out.writeLong(dataId);
+            }
+        }
+
+        public static final Parcelable.Creator<SavedState> CREATOR =
+                new Parcelable.Creator<SavedState>() {
+                    @Override
+                    public SavedState createFromParcel(Parcel in) {
+                        return new SavedState(in);
+                    }
+
+                    @Override
+                    public SavedState[] newArray(int size) {
+                        return new SavedState[size];
+                    }
+                };
     }
 
     /**
@@ -938,20 +1603,135 @@ public class SparkView extends View implements ScrubGestureDetector.ScrubListene
         void onScrubbed(@Nullable Object value, float x);
     }
 
-    private final DataSetObserver dataSetObserver = new DataSetObserver() {
+    /**
+     * Allocation-free listener for a user scrubbing (dragging their finger along) the graph.
+     * Unlike {@link OnScrubListener}, the scrubbed point is reported as primitives, so adapters
+     * backed by primitive data never box a value per touch event.
+     */
+    public interface OnScrubValueListener {
+        /**
+         * Indicates the user is currently scrubbing over the point at the given index.
+         *
+         * @param index         the adapter index of the point nearest the scrub position
+         * @param x             the point's X value. For adapters with precise X values, this is
+         *                      rebased against {@link SparkAdapter#getXOrigin()}
+         * @param y             the point's Y value
+         * @param scaledX       the point's X position in pixels
+         * @param scaledY       the point's Y position in pixels
+         * @param interpolatedY the Y value linearly interpolated between the two points on either
+         *                      side of the scrub position
+         */
+        void onScrubbed(int index, float x, float y, float scaledX, float scaledY,
+                float interpolatedY);
+
+        /**
+         * Indicates the user has stopped scrubbing.
+         */
+        void onScrubEnded();
+    }
+
+    /**
+     * Listener for a user scrubbing a range of the graph with two fingers. The change over the
+     * range is {@code last - first}.
+     */
+    public interface OnRangeScrubListener {
+        /**
+         * Indicates the user is currently scrubbing over the given range.
+         *
+         * @param startIndex the adapter index of the first point in the range
+         * @param endIndex   the adapter index of the last point in the range, inclusive
+         * @param first      the Y value of the first point in the range
+         * @param last       the Y value of the last point in the range
+         * @param low        the lowest Y value in the range
+         * @param high       the highest Y value in the range
+         */
+        void onRangeScrubbed(int startIndex, int endIndex, float first, float last, float low,
+                float high);
+
+        /**
+         * Indicates the user has stopped scrubbing a range.
+         */
+        void onRangeScrubEnded();
+    }
+
+    /**
+     * Cancels a rebuild requested by {@link #dataSetObserver} that hasn't run yet.
+     */
+    private void cancelPendingRebuild() {
+        if (rebuildScheduler != null) {
+            rebuildScheduler.cancel();
+        }
+        pendingAnimation = false;
+        pendingFullRebuild = false;
+        dirtyStart = Integer.MAX_VALUE;
+        dirtyEnd = -1;
+    }
+
+    /**
+     * Patches the points changed through {@link SparkAdapter#notifyItemChanged(int)} into the
+     * current geometry, if that can be done without rescaling.
+     *
+     * @return false if a full rebuild is needed instead.
+     */
+    private boolean patchDirtyPoints() {
+        if (dirtyStart > dirtyEnd || adapter == null || !canShowChanges()) return false;
+        // an animation frame is derived from the old geometry, so finish it with a rebuild
+        if (pathAnimator != null && pathAnimator.isRunning()) return false;
+        if (!geometry.updatePoints(adapter, dirtyStart, dirtyEnd)) return false;
+
+        onGeometryChanged();
+        return true;
+    }
+
+    /**
+     * Runs once per frame in which the adapter reported changes, no matter how many times it did.
+     */
+    private final Runnable rebuildRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final boolean patched = !pendingFullRebuild && patchDirtyPoints();
+            pendingFullRebuild = false;
+            dirtyStart = Integer.MAX_VALUE;
+            dirtyEnd = -1;
+
+            if (!patched) {
+                final boolean animating = pathAnimator != null && pathAnimator.isRunning();
+                populatePath();
+
+                if (pendingAnimation && sparkAnimator != null && dirtyFlags == 0) {
+                    doPathAnimation();
+                } else if (animating && (dirtyFlags != 0 || !retargetAnimation())) {
+                    // a running animation still heads for the old data, so carry it over to
+                    // the new data if possible, and otherwise end it on the new data
+                    pathAnimator.cancel();
+                }
+            }
+            pendingAnimation = false;
+        }
+    };
+
+    private final SparkDataSetObserver dataSetObserver = new SparkDataSetObserver() {
         @Override
         public void onChanged() {
             super.onChanged();
-            populatePath();
+            // coalesce bursts of changes into a single rebuild on the next frame
+            pendingAnimation = true;
+            pendingFullRebuild = true;
+            rebuildScheduler.schedule();
+        }
 
-            if (sparkAnimator != null) {
-                doPathAnimation();
-            }
+        @Override
+        public void onItemChanged(int index) {
+            // single points are patched in place on the next frame, without animating
+            dirtyStart = Math.min(dirtyStart, index);
+            dirtyEnd = Math.max(dirtyEnd, index);
+            rebuildScheduler.schedule();
         }
 
         @Override
         public void onInvalidated() {
             super.onInvalidated();
+            cancelPendingRebuild();
             clearData();
         }
     };
@@ -1,7 +1,6 @@
 package com.robinhood.spark.animation;
 
 import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
 import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.graphics.Path;
@@ -11,75 +10,108 @@ import android.support.annotation.Nullable;
 
 import com.robinhood.spark.SparkView;
 
-import java.util.List;
-
 /**
  * Animates each point vertically from the previous position to the current position.
  */
-public class MorphSparkAnimator extends Animator implements SparkAnimator {
+public class MorphSparkAnimator extends Animator implements RetargetableSparkAnimator {
 
     private final ValueAnimator animator;
-    private @Nullable List<Float> oldYPoints;
-    private Path animationPath;
+    private final Path animationPath;
+    // the points the animation runs between, reused from one animation to the next
+    private float[] xPoints = new float[0];
+    private float[] fromYPoints = new float[0];
+    private float[] toYPoints = new float[0];
+    // the Y values of the frame displayed last, where the next animation starts from
+    private float[] currentYPoints = new float[0];
+    private int count;
+    private int currentCount;
+    private @Nullable SparkView sparkView;
 
     public MorphSparkAnimator() {
         animator = ValueAnimator.ofFloat(0, 1);
         animationPath = new Path();
-    }
-
-    @Nullable
-    @Override
-    public Animator getAnimation(final SparkView sparkView) {
-
-        final List<Float> xPoints = sparkView.getXPoints();
-        final List<Float> yPoints = sparkView.getYPoints();
-
-        if (xPoints.isEmpty() || yPoints.isEmpty()) {
-            return null;
-        }
 
         animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
             @Override
             public void onAnimationUpdate(ValueAnimator animation) {
+                if (sparkView == null) return;
 
                 float animatedValue = (float) animation.getAnimatedValue();
 
                 animationPath.reset();
 
-                float step;
-                float y, oldY;
-                int size = xPoints.size();
-                for (int count = 0; count < size; count++) {
-
-                    // get oldY, can be 0 (zero) if current points are larger
-                    oldY = oldYPoints != null && oldYPoints.size() > count ? oldYPoints.get(count) : 0f;
+                float y;
+                for (int i = 0; i < count; i++) {
+                    y = ((toYPoints[i] - fromYPoints[i]) * animatedValue) + fromYPoints[i];
+                    currentYPoints[i] = y;
 
-                    step = yPoints.get(count) - oldY;
-                    y = (step * animatedValue) + oldY;
-
-                    if (count == 0) {
-                        animationPath.moveTo(xPoints.get(count), y);
+                    if (i == 0) {
+                        animationPath.moveTo(xPoints[i], y);
                     } else {
-                        animationPath.lineTo(xPoints.get(count), y);
+                        animationPath.lineTo(xPoints[i], y);
                     }
-
                 }
+                currentCount = count;
 
                 // set the updated path for the animation
                 sparkView.setAnimationPath(animationPath);
             }
         });
+    }
 
-        animator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                oldYPoints = yPoints;
-            }
-        });
+    @Nullable
+    @Override
+    public Animator getAnimation(final SparkView sparkView) {
+        if (!setTarget(sparkView)) {
+            return null;
+        }
 
         return animator;
     }
 
+    @Override
+    public boolean retarget(SparkView sparkView) {
+        if (!animator.isRunning() || sparkView != this.sparkView || !setTarget(sparkView)) {
+            return false;
+        }
+
+        // restart the running animation from the captured frame, without ending it
+        animator.setCurrentPlayTime(0);
+        return true;
+    }
+
+    /**
+     * Starts the next animation from the frame displayed last, and ends it at the view's current
+     * points.
+     *
+     * @return false if the view has no points to animate to.
+     */
+    private boolean setTarget(@NonNull SparkView sparkView) {
+        final int count = sparkView.getPointCount();
+        if (count == 0) {
+            return false;
+        }
+        this.sparkView = sparkView;
+
+        if (xPoints.length < count) {
+            xPoints = new float[count];
+            fromYPoints = new float[count];
+            toYPoints = new float[count];
+            final float[] oldYPoints = currentYPoints;
+            currentYPoints = new float[count];
+            System.arraycopy(oldYPoints, 0, currentYPoints, 0, currentCount);
+        }
+        sparkView.getScaledPoints(xPoints, toYPoints);
+
+        for (int i = 0; i < count; i++) {
+            // new points start level with the last point displayed, or at 0 (zero) if none was
+            fromYPoints[i] = i < currentCount ? currentYPoints[i]
+                    : currentCount > 0 ? currentYPoints[currentCount - 1] : 0f;
+        }
+        this.count = count;
+        return true;
+    }
+
     @Override
     public long getStartDelay() {
         return animator.getStartDelay();
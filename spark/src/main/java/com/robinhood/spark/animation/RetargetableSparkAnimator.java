@@ -0,0 +1,23 @@
+package com.robinhood.spark.animation;
+
+import com.robinhood.spark.SparkView;
+
+/**
+ * A {@link SparkAnimator} whose running animation can be pointed at new data without being
+ * restarted, so frequent updates continue smoothly from wherever the chart currently is instead
+ * of jumping back to where the previous animation started.
+ */
+public interface RetargetableSparkAnimator extends SparkAnimator {
+
+    /**
+     * Called instead of {@link #getAnimation(SparkView)} when the view's data changes while the
+     * animation it returned last is still running. Implementations should capture the frame
+     * currently displayed as the new starting point, and animate from it to the view's current
+     * points with the same {@link android.animation.Animator}.
+     *
+     * @param sparkView The SparkView object
+     * @return true if the running animation was retargeted, false if a new animation should be
+     * started with {@link #getAnimation(SparkView)} instead.
+     */
+    boolean retarget(SparkView sparkView);
+}
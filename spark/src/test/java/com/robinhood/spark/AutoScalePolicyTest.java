@@ -0,0 +1,61 @@
+package com.robinhood.spark;
+
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+
+public class AutoScalePolicyTest {
+    private final float[] range = new float[2];
+
+    @Test
+    public void testExact() {
+        AutoScalePolicy.exact().getRange(2, 10, 0, 20, range);
+        assertEquals(2f, range[0]);
+        assertEquals(10f, range[1]);
+    }
+
+    @Test
+    public void testFixed() {
+        AutoScalePolicy.fixed(-5, 5).getRange(2, 10, Float.NaN, Float.NaN, range);
+        assertEquals(-5f, range[0]);
+        assertEquals(5f, range[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFixedEmptyRange() {
+        AutoScalePolicy.fixed(5, 5);
+    }
+
+    @Test
+    public void testPadded() {
+        AutoScalePolicy.padded(0.1f).getRange(0, 100, Float.NaN, Float.NaN, range);
+        assertEquals(-10f, range[0]);
+        assertEquals(110f, range[1]);
+    }
+
+    @Test
+    public void testHysteresisScalesWithoutCurrentRange() {
+        AutoScalePolicy.hysteresis(0.1f).getRange(0, 100, Float.NaN, Float.NaN, range);
+        assertEquals(-10f, range[0]);
+        assertEquals(110f, range[1]);
+    }
+
+    @Test
+    public void testHysteresisKeepsRangeWhileDataFits() {
+        AutoScalePolicy.hysteresis(0.1f).getRange(5, 105, -10, 110, range);
+        assertEquals(-10f, range[0]);
+        assertEquals(110f, range[1]);
+    }
+
+    @Test
+    public void testHysteresisRescalesWhenDataLeaves() {
+        AutoScalePolicy.hysteresis(0.1f).getRange(0, 200, -10, 110, range);
+        assertEquals(-20f, range[0]);
+        assertEquals(220f, range[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeHeadroom() {
+        AutoScalePolicy.padded(-1);
+    }
+}
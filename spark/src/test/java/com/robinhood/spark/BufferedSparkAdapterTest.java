@@ -0,0 +1,122 @@
+package com.robinhood.spark;
+
+import android.os.Handler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static junit.framework.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class BufferedSparkAdapterTest {
+    private Handler handler;
+
+    @Before
+    public void setup() {
+        handler = mock(Handler.class);
+    }
+
+    @Test
+    public void test_writes_invisibleUntilSwapped() {
+        BufferedSparkAdapter adapter = new BufferedSparkAdapter(100, handler);
+        adapter.add(1);
+        adapter.add(2);
+
+        assertEquals(0, adapter.getCount());
+        verifyZeroInteractions(handler);
+
+        adapter.publish();
+        // still the old snapshot until the main thread swaps
+        assertEquals(0, adapter.getCount());
+
+        assertTrue(adapter.swapSnapshot());
+        assertEquals(2, adapter.getCount());
+        assertEquals(0f, adapter.getX(0));
+        assertEquals(1f, adapter.getX(1));
+        assertEquals(1f, adapter.getY(0));
+        assertEquals(2f, adapter.getY(1));
+        assertFalse(adapter.swapSnapshot());
+    }
+
+    @Test
+    public void test_publish_conflatesBursts() {
+        BufferedSparkAdapter adapter = new BufferedSparkAdapter(100, handler);
+        for (int i = 0; i < 10; i++) {
+            adapter.add(i);
+            adapter.publish();
+        }
+
+        // a single swap is posted, and it sees the latest data
+        verify(handler, times(1)).post(any(Runnable.class));
+        assertTrue(adapter.swapSnapshot());
+        assertEquals(10, adapter.getCount());
+        assertEquals(9f, adapter.getY(9));
+
+        // the next publish posts again
+        adapter.publish();
+        verify(handler, times(2)).post(any(Runnable.class));
+    }
+
+    @Test
+    public void test_snapshot_unaffectedByLaterWrites() {
+        BufferedSparkAdapter adapter = new BufferedSparkAdapter(100, handler);
+        adapter.add(1);
+        adapter.publish();
+        adapter.swapSnapshot();
+
+        adapter.set(0, 5);
+        adapter.add(6);
+        assertEquals(1, adapter.getCount());
+        assertEquals(1f, adapter.getY(0));
+
+        adapter.publish();
+        adapter.swapSnapshot();
+        assertEquals(2, adapter.getCount());
+        assertEquals(5f, adapter.getY(0));
+        assertEquals(6f, adapter.getY(1));
+    }
+
+    @Test
+    public void test_maxCount_dropsOldest() {
+        BufferedSparkAdapter adapter = new BufferedSparkAdapter(3, handler);
+        for (int i = 1; i <= 5; i++) {
+            adapter.add(i * 10, i);
+        }
+        adapter.set(0, 30);
+        adapter.publish();
+        adapter.swapSnapshot();
+
+        assertEquals(3, adapter.getCount());
+        float[] xs = new float[3];
+        float[] ys = new float[3];
+        adapter.getPoints(0, 3, xs, ys);
+        assertEquals(30f, xs[0]);
+        assertEquals(40f, xs[1]);
+        assertEquals(50f, xs[2]);
+        assertEquals(30f, ys[0]);
+        assertEquals(4f, ys[1]);
+        assertEquals(5f, ys[2]);
+    }
+
+    @Test
+    public void test_add_cantMixXValues() {
+        BufferedSparkAdapter adapter = new BufferedSparkAdapter(100, handler);
+        adapter.add(1, 1);
+        try {
+            adapter.add(2);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        // but can after a clear
+        adapter.clear();
+        adapter.add(2);
+    }
+}
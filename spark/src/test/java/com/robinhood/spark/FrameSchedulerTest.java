@@ -0,0 +1,73 @@
+package com.robinhood.spark;
+
+import android.os.Handler;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class FrameSchedulerTest {
+    private Handler handler;
+    private Runnable callback;
+    private FrameScheduler frameScheduler;
+
+    @Before
+    public void setup() {
+        handler = mock(Handler.class);
+        callback = mock(Runnable.class);
+        frameScheduler = new FrameScheduler(handler, callback);
+    }
+
+    @Test
+    public void test_schedule_coalesces() {
+        frameScheduler.schedule();
+        frameScheduler.schedule();
+        frameScheduler.schedule();
+
+        // only a single frame is requested
+        verify(handler, times(1)).postDelayed(any(Runnable.class), anyLong());
+        assertTrue(frameScheduler.isScheduled());
+        verifyZeroInteractions(callback);
+    }
+
+    @Test
+    public void test_frame_runsCallbackOnce() {
+        frameScheduler.schedule();
+        frameScheduler.schedule();
+
+        ArgumentCaptor<Runnable> frame = ArgumentCaptor.forClass(Runnable.class);
+        verify(handler).postDelayed(frame.capture(), anyLong());
+        frame.getValue().run();
+
+        verify(callback, times(1)).run();
+        assertFalse(frameScheduler.isScheduled());
+
+        // a new request after the frame schedules another one
+        frameScheduler.schedule();
+        verify(handler, times(2)).postDelayed(any(Runnable.class), anyLong());
+    }
+
+    @Test
+    public void test_cancel() {
+        frameScheduler.schedule();
+
+        ArgumentCaptor<Runnable> frame = ArgumentCaptor.forClass(Runnable.class);
+        verify(handler).postDelayed(frame.capture(), anyLong());
+        frameScheduler.cancel();
+        verify(handler).removeCallbacks(frame.getValue());
+
+        // even if the frame still arrives, the callback doesn't run
+        frame.getValue().run();
+        verifyZeroInteractions(callback);
+        assertFalse(frameScheduler.isScheduled());
+    }
+}
@@ -6,6 +6,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static junit.framework.Assert.assertEquals;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 public class ScaleHelperUnitTest {
     private RectF contentRect;
@@ -120,6 +123,17 @@ public class ScaleHelperUnitTest {
         assertEquals(0f, y4);
     }
 
+    @Test
+    public void testFlatDataBoundsNotMutated() {
+        RectF bounds = TestAdapter.createMockRectF(0, 5, 10, 5);
+        SparkView.ScaleHelper scaleHelper = new SparkView.ScaleHelper(bounds, 0, contentRect, 0,
+                false);
+
+        // the flat line is centered without insetting the caller's bounds
+        assertEquals(50f, scaleHelper.getY(5));
+        verify(bounds, never()).inset(anyFloat(), anyFloat());
+    }
+
     @Test
     public void testNonWrappingDataBounds() {
         testAdapter.setYData(new float[] {0, 50, 100});
@@ -197,4 +211,29 @@ public class ScaleHelperUnitTest {
         assertEquals(50f, x2);
         assertEquals(0f, y2);
     }
+
+    @Test
+    public void testPreciseX() {
+        testAdapter.setYData(new float[] {0, 1, 2});
+        testAdapter.setPreciseXData(new double[] {1500000000000d, 1500000000001d, 1500000000002d});
+        SparkView.ScaleHelper scaleHelper = new SparkView.ScaleHelper(testAdapter, contentRect, 0,
+                false);
+
+        assertEquals(0f, scaleHelper.getPreciseX(1500000000000d));
+        assertEquals(50f, scaleHelper.getPreciseX(1500000000001d));
+        assertEquals(100f, scaleHelper.getPreciseX(1500000000002d));
+    }
+
+    @Test
+    public void testGetRawXInvertsGetX() {
+        testAdapter.setYData(new float[] {0, 1, 2, 3});
+        testAdapter.setXData(new float[] {0, 2, 4, 8});
+        SparkView.ScaleHelper scaleHelper = new SparkView.ScaleHelper(testAdapter, contentRect, 4,
+                false);
+
+        for (int i = 0; i < 4; i++) {
+            float x = testAdapter.getX(i);
+            assertEquals(x, scaleHelper.getRawX(scaleHelper.getX(x)), 0.0001f);
+        }
+    }
 }
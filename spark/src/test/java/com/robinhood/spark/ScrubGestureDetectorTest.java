@@ -5,15 +5,18 @@ import android.view.MotionEvent;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertFalse;
 import static junit.framework.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -117,6 +120,84 @@ public class ScrubGestureDetectorTest {
         verifyNoMoreInteractions(scrubListener);
     }
 
+    @Test
+    public void test_resampling_dispatchesOncePerFrame() {
+        scrubGestureDetector.setResamplingEnabled(true);
+        final long moveTime = ScrubGestureDetector.LONG_PRESS_TIMEOUT_MS;
+        final MotionEvent down = getMotionEvent(MotionEvent.ACTION_DOWN, 0, 0, 0, 0);
+        final MotionEvent move1 = getMotionEvent(MotionEvent.ACTION_MOVE, 10, 10, moveTime, 0);
+        final MotionEvent move2 = getMotionEvent(MotionEvent.ACTION_MOVE, 20, 20, moveTime + 40, 0);
+
+        assertTrue(scrubGestureDetector.onTouch(null, down));
+        assertTrue(scrubGestureDetector.onTouch(null, move1));
+        assertTrue(scrubGestureDetector.onTouch(null, move2));
+
+        // nothing is dispatched until the frame
+        verifyNoMoreInteractions(scrubListener);
+
+        // long-press runnable, then a single frame callback
+        ArgumentCaptor<Runnable> runnables = ArgumentCaptor.forClass(Runnable.class);
+        verify(handler, times(2)).postDelayed(runnables.capture(), anyLong());
+        runnables.getAllValues().get(1).run();
+
+        // samples are too far apart to resample between, so the latest one is used
+        verify(scrubListener).onScrubbed(20, 20);
+        verifyNoMoreInteractions(scrubListener);
+    }
+
+    @Test
+    public void test_rangeScrub() {
+        scrubGestureDetector.setRangeEnabled(true);
+        final MotionEvent down = getMotionEvent(MotionEvent.ACTION_DOWN, 10, 0, 0, 0);
+        final MotionEvent pointerDown = getMotionEvent(MotionEvent.ACTION_POINTER_DOWN, 10, 0, 1, 0);
+        when(pointerDown.getPointerCount()).thenReturn(2);
+        when(pointerDown.getX(0)).thenReturn(10f);
+        when(pointerDown.getX(1)).thenReturn(50f);
+        final MotionEvent move = getMotionEvent(MotionEvent.ACTION_MOVE, 10, 0, 2, 0);
+        when(move.getPointerCount()).thenReturn(2);
+        when(move.getX(0)).thenReturn(10f);
+        when(move.getX(1)).thenReturn(60f);
+        final MotionEvent up = getMotionEvent(MotionEvent.ACTION_UP, 0, 0, 3, 0);
+
+        assertTrue(scrubGestureDetector.onTouch(null, down));
+        assertTrue(scrubGestureDetector.onTouch(null, pointerDown));
+        assertTrue(scrubGestureDetector.onTouch(null, move));
+        assertTrue(scrubGestureDetector.onTouch(null, up));
+
+        verify(scrubListener).onRangeScrubbed(10f, 50f);
+        verify(scrubListener).onRangeScrubbed(10f, 60f);
+        verify(scrubListener).onScrubEnded();
+        verifyNoMoreInteractions(scrubListener);
+    }
+
+    @Test
+    public void test_rangeScrub_disabled() {
+        final MotionEvent down = getMotionEvent(MotionEvent.ACTION_DOWN, 10, 0, 0, 0);
+        final MotionEvent pointerDown = getMotionEvent(MotionEvent.ACTION_POINTER_DOWN, 10, 0, 1, 0);
+        when(pointerDown.getPointerCount()).thenReturn(2);
+
+        assertTrue(scrubGestureDetector.onTouch(null, down));
+        assertFalse(scrubGestureDetector.onTouch(null, pointerDown));
+        verifyNoMoreInteractions(scrubListener);
+    }
+
+    @Test
+    public void test_resample_interpolates() {
+        assertEquals(15f, ScrubGestureDetector.resample(10, 100, 20, 110, 105));
+    }
+
+    @Test
+    public void test_resample_predictsWithinLimit() {
+        // predict at most half of the sample delta past the latest sample
+        assertEquals(25f, ScrubGestureDetector.resample(10, 100, 20, 110, 150));
+    }
+
+    @Test
+    public void test_resample_ignoresStaleSamples() {
+        assertEquals(20f, ScrubGestureDetector.resample(10, 0, 20, 100, 50));
+        assertEquals(20f, ScrubGestureDetector.resample(10, 100, 20, 110, 90));
+    }
+
     private MotionEvent getMotionEvent(int action, float x, float y, long eventTime, long downTime) {
         MotionEvent motionEvent = Mockito.mock(MotionEvent.class);
         when(motionEvent.getX()).thenReturn(x);
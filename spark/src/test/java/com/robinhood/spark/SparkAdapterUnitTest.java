@@ -1,10 +1,13 @@
 package com.robinhood.spark;
 
 import android.graphics.RectF;
+import android.support.annotation.NonNull;
 
 import org.junit.Test;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertFalse;
+import static junit.framework.Assert.assertTrue;
 
 public class SparkAdapterUnitTest {
 
@@ -45,4 +48,74 @@ public class SparkAdapterUnitTest {
         assertEquals(Float.MAX_VALUE, bounds.top);
         assertEquals(-Float.MAX_VALUE, bounds.bottom);
     }
+
+    @Test
+    public void test_getPoints_range() {
+        TestAdapter testAdapter = new TestAdapter();
+        testAdapter.setYData(new float[] {5, 6, 7, 8});
+        testAdapter.setXData(new float[] {1, 2, 3, 4});
+        float[] xs = new float[2];
+        float[] ys = new float[2];
+        testAdapter.getPoints(1, 2, xs, ys);
+
+        assertEquals(2f, xs[0]);
+        assertEquals(3f, xs[1]);
+        assertEquals(6f, ys[0]);
+        assertEquals(7f, ys[1]);
+    }
+
+    @Test
+    public void test_preciseX_rebasedAgainstFirstPoint() {
+        TestAdapter testAdapter = new TestAdapter();
+        testAdapter.setYData(new float[] {1, 2, 3});
+        // adjacent epoch-millisecond timestamps collapse to the same value as floats
+        testAdapter.setPreciseXData(new double[] {1500000000000d, 1500000000001d, 1500000000002d});
+        float[] xs = new float[3];
+        float[] ys = new float[3];
+        testAdapter.getPoints(0, 3, xs, ys);
+
+        assertEquals(1500000000000d, testAdapter.getXOrigin());
+        assertEquals(0f, xs[0]);
+        assertEquals(1f, xs[1]);
+        assertEquals(2f, xs[2]);
+
+        RectF bounds = testAdapter.getDataBounds();
+        assertEquals(0f, bounds.left);
+        assertEquals(2f, bounds.right);
+    }
+
+    @Test
+    public void test_hasCustomDataBounds() {
+        SparkAdapter defaultAdapter = new SparkAdapter() {
+            @Override public int getCount() { return 0; }
+            @NonNull @Override public Object getItem(int index) { return index; }
+            @Override public float getY(int index) { return 0; }
+        };
+
+        assertFalse(defaultAdapter.hasCustomDataBounds());
+        assertTrue(new TestAdapter().hasCustomDataBounds());
+    }
+
+    @Test
+    public void test_hasCustomDataBounds_onlyGetDataBoundsOverridden() {
+        SparkAdapter adapter = new SparkAdapter() {
+            @Override public int getCount() { return 0; }
+            @NonNull @Override public Object getItem(int index) { return index; }
+            @Override public float getY(int index) { return 0; }
+            @NonNull @Override public RectF getDataBounds() {
+                return TestAdapter.createMockRectF(0, 0, 1, 1);
+            }
+        };
+
+        assertTrue(adapter.hasCustomDataBounds());
+    }
+
+    @Test
+    public void test_hasCustomDataBounds_explicitFlagWins() {
+        TestAdapter adapter = new TestAdapter() {
+            @Override public boolean hasCustomDataBounds() { return false; }
+        };
+
+        assertFalse(adapter.hasCustomDataBounds());
+    }
 }
@@ -0,0 +1,96 @@
+package com.robinhood.spark;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static junit.framework.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SparkTickHubTest {
+    private SparkTickHub<String> hub;
+
+    @Before
+    public void setup() {
+        hub = new SparkTickHub<>(3);
+    }
+
+    private SparkAdapter bind(SparkView view, String key) {
+        hub.bind(view, key);
+        ArgumentCaptor<SparkAdapter> adapter = ArgumentCaptor.forClass(SparkAdapter.class);
+        verify(view).setAdapter(adapter.capture());
+        when(view.getAdapter()).thenReturn(adapter.getValue());
+        return adapter.getValue();
+    }
+
+    @Test
+    public void test_bind_readsSeries() {
+        hub.add("A", 1);
+        hub.add("A", 2);
+        SparkAdapter adapter = bind(mock(SparkView.class), "A");
+
+        assertEquals(2, adapter.getCount());
+        assertEquals(1f, adapter.getY(0));
+        assertEquals(2f, adapter.getY(1));
+    }
+
+    @Test
+    public void test_add_dropsOldest() {
+        SparkAdapter adapter = bind(mock(SparkView.class), "A");
+        for (int i = 1; i <= 5; i++) {
+            hub.add("A", i);
+        }
+
+        assertEquals(3, adapter.getCount());
+        assertEquals(3f, adapter.getY(0));
+        assertEquals(4f, adapter.getY(1));
+        assertEquals(5f, adapter.getY(2));
+    }
+
+    @Test
+    public void test_bind_sameSeries_isFree() {
+        SparkView view = mock(SparkView.class);
+        bind(view, "A");
+        hub.bind(view, "A");
+
+        verify(view, times(1)).setAdapter(any(SparkAdapter.class));
+    }
+
+    @Test
+    public void test_unbind() {
+        SparkView view = mock(SparkView.class);
+        bind(view, "A");
+        hub.unbind(view);
+        verify(view).setAdapter(null);
+        verify(view).removeOnAttachStateChangeListener(any(View.OnAttachStateChangeListener.class));
+    }
+
+    @Test
+    public void test_remove_unbindsViews() {
+        SparkView view = mock(SparkView.class);
+        bind(view, "A");
+        hub.add("A", 1);
+        hub.remove("A");
+        verify(view).setAdapter(null);
+
+        SparkAdapter adapter = bind(mock(SparkView.class), "A");
+        assertEquals(0, adapter.getCount());
+    }
+
+    @Test
+    public void test_add_dropsReplacedAdapter() {
+        SparkView view = mock(SparkView.class);
+        bind(view, "A");
+        // the app gave the view another adapter
+        when(view.getAdapter()).thenReturn(null);
+        hub.add("A", 1);
+
+        verify(view).removeOnAttachStateChangeListener(any(View.OnAttachStateChangeListener.class));
+    }
+}
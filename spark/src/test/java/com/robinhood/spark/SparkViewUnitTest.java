@@ -39,4 +39,12 @@ public class SparkViewUnitTest {
     public void test_getNearestIndex_halfway() {
         assertEquals(3, SparkView.getNearestIndex(points, 2.5f));
     }
+
+    @Test
+    public void test_getNearestIndex_array() {
+        float[] values = new float[] {0f, 1f, 2f, 3f, 100f};
+        // only the first 4 values are valid
+        assertEquals(3, SparkView.getNearestIndex(values, 4, 50f));
+        assertEquals(1, SparkView.getNearestIndex(values, 4, 1.4f));
+    }
 }
@@ -14,6 +14,7 @@ import static org.mockito.Mockito.when;
 
 public class TestAdapter extends SparkAdapter {
     private float[] yData, xData;
+    private double[] preciseXData;
     private RectF dataBounds;
 
     public void setYData(float[] yData) {
@@ -24,6 +25,10 @@ public class TestAdapter extends SparkAdapter {
         this.xData = xData;
     }
 
+    public void setPreciseXData(double[] preciseXData) {
+        this.preciseXData = preciseXData;
+    }
+
     public void setDataBounds(float left, float top, float right, float bottom) {
         this.dataBounds = createMockRectF(left, top, right, bottom);
     }
@@ -51,6 +56,16 @@ public class TestAdapter extends SparkAdapter {
                 : xData[index];
     }
 
+    @Override
+    public boolean hasPreciseX() {
+        return preciseXData != null;
+    }
+
+    @Override
+    public double getPreciseX(int index) {
+        return preciseXData[index];
+    }
+
     @Override
     public RectF getDataBounds() {
         return dataBounds == null